@@ -0,0 +1,136 @@
+/**
+ *      SpongeRemoteChests - Access your containers remotely.
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2017 Sandstone <https://github.com/ProjectSandstone/SpongeRemoteChests/>
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.projectsandstone.spongeremotechests.benchmark;
+
+import com.github.projectsandstone.spongeremotechests.api.RemoteContainer;
+import com.github.projectsandstone.spongeremotechests.api.Result;
+import com.github.projectsandstone.spongeremotechests.api.factory.RemoteContainerFactory;
+import com.github.projectsandstone.spongeremotechests.api.query.ContainerQuery;
+import com.github.projectsandstone.spongeremotechests.manager.Backend;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registration and lookups of a {@link Backend} filled with {@link #links()} containers, {@link
+ * Benchmarks#CONTAINERS_PER_OWNER} per owner.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public abstract class BackendBenchmark {
+
+    private Path directory;
+    private Backend backend;
+    private int owners;
+    private int index;
+
+    /**
+     * Gets the number of containers to fill the backend with.
+     */
+    protected abstract int links();
+
+    /**
+     * Creates the backend, stubs are already installed.
+     *
+     * @param directory Empty directory for backend data.
+     */
+    protected abstract Backend createBackend(Path directory) throws Exception;
+
+    @Setup
+    public void setup() throws Exception {
+        this.directory = Files.createTempDirectory("spongeremotechests-benchmark");
+
+        SpongeStubs.install(this.directory);
+
+        this.backend = this.createBackend(this.directory);
+        this.owners = Math.max(this.links() / Benchmarks.CONTAINERS_PER_OWNER, 1);
+
+        for (Map<UUID, Collection<RemoteContainer>> batch : Benchmarks.batches(this.links()))
+            this.backend.registerAll(batch).join();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        this.backend.close();
+        Benchmarks.delete(this.directory);
+    }
+
+    @Benchmark
+    public Optional<RemoteContainer> getContainer() {
+        return this.backend.getContainer(this.nextOwner(), "c50").join();
+    }
+
+    @Benchmark
+    public Integer countContainers() {
+        return this.backend.countContainers(this.nextOwner()).join();
+    }
+
+    @Benchmark
+    public Boolean isOwner() {
+        UUID owner = this.nextOwner();
+        int first = (int) owner.getLeastSignificantBits() * Benchmarks.CONTAINERS_PER_OWNER;
+
+        return this.backend.isOwner(owner, Benchmarks.container(first)).join();
+    }
+
+    /**
+     * Registers a container with limit and unregisters it, so the backend keeps its size.
+     */
+    @Benchmark
+    public Boolean registerAndUnregister() {
+        UUID owner = this.nextOwner();
+        RemoteContainer container = RemoteContainerFactory.createChest("benchmark", SpongeStubs.WORLD,
+                (int) owner.getLeastSignificantBits(), 65, 0);
+        Result result = this.backend.register(owner, container, Integer.MAX_VALUE).join();
+
+        return result != null && this.backend.unregister(owner, ContainerQuery.at(container)).join();
+    }
+
+    private synchronized UUID nextOwner() {
+        int i = this.index;
+
+        this.index = i + 1 == this.owners ? 0 : i + 1;
+
+        return Benchmarks.owner(i);
+    }
+}
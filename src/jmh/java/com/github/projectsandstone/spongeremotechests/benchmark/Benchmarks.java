@@ -0,0 +1,121 @@
+/**
+ *      SpongeRemoteChests - Access your containers remotely.
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2017 Sandstone <https://github.com/ProjectSandstone/SpongeRemoteChests/>
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.projectsandstone.spongeremotechests.benchmark;
+
+import com.github.projectsandstone.spongeremotechests.api.RemoteContainer;
+import com.github.projectsandstone.spongeremotechests.api.factory.RemoteContainerFactory;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Data shared by benchmarks.
+ */
+final class Benchmarks {
+
+    /**
+     * Number of containers of each benchmark user.
+     */
+    static final int CONTAINERS_PER_OWNER = 100;
+
+    /**
+     * Number of containers registered per batch when filling backends.
+     */
+    static final int BATCH_SIZE = 10_000;
+
+    private static final int ROW_LENGTH = 10_000;
+
+    private Benchmarks() {
+        throw new IllegalStateException();
+    }
+
+    /**
+     * Gets the unique id of the {@code index}th benchmark user.
+     */
+    static UUID owner(int index) {
+        return new UUID(0L, index);
+    }
+
+    /**
+     * Creates the {@code index}th benchmark container, containers are named after their index in
+     * their owner and placed in distinct blocks.
+     */
+    static RemoteContainer container(int index) {
+        return RemoteContainerFactory.createChest("c" + (index % CONTAINERS_PER_OWNER), SpongeStubs.WORLD,
+                index % ROW_LENGTH, 64, index / ROW_LENGTH);
+    }
+
+    /**
+     * Creates batches of {@code links} benchmark containers by owner, {@link #CONTAINERS_PER_OWNER}
+     * per owner.
+     */
+    static List<Map<UUID, Collection<RemoteContainer>>> batches(int links) {
+        List<Map<UUID, Collection<RemoteContainer>>> batches = new ArrayList<>();
+
+        for (int start = 0; start < links; start += BATCH_SIZE) {
+            Map<UUID, Collection<RemoteContainer>> batch = new LinkedHashMap<>();
+
+            for (int i = start; i < Math.min(start + BATCH_SIZE, links); i++)
+                batch.computeIfAbsent(Benchmarks.owner(i / CONTAINERS_PER_OWNER), uuid -> new ArrayList<>())
+                        .add(Benchmarks.container(i));
+
+            batches.add(batch);
+        }
+
+        return batches;
+    }
+
+    static void delete(Path directory) throws IOException {
+        if (!Files.exists(directory))
+            return;
+
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
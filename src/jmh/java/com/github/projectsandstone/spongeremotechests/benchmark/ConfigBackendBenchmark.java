@@ -0,0 +1,58 @@
+/**
+ *      SpongeRemoteChests - Access your containers remotely.
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2017 Sandstone <https://github.com/ProjectSandstone/SpongeRemoteChests/>
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.projectsandstone.spongeremotechests.benchmark;
+
+import com.github.projectsandstone.spongeremotechests.config.SavesConfig;
+import com.github.projectsandstone.spongeremotechests.manager.Backend;
+import com.github.projectsandstone.spongeremotechests.manager.ConfigBackend;
+
+import org.openjdk.jmh.annotations.Param;
+import org.slf4j.helpers.NOPLogger;
+
+import java.nio.file.Path;
+
+/**
+ * {@link ConfigBackend} with default saves configuration (journal enabled, background saves never
+ * run).
+ */
+public class ConfigBackendBenchmark extends BackendBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int links;
+
+    @Override
+    protected int links() {
+        return this.links;
+    }
+
+    @Override
+    protected Backend createBackend(Path directory) {
+        return new ConfigBackend(this, NOPLogger.NOP_LOGGER, directory.resolve("saves"), directory.resolve("saves.conf"),
+                new SavesConfig());
+    }
+}
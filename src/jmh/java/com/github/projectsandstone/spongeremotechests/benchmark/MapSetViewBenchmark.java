@@ -0,0 +1,90 @@
+/**
+ *      SpongeRemoteChests - Access your containers remotely.
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2017 Sandstone <https://github.com/ProjectSandstone/SpongeRemoteChests/>
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.projectsandstone.spongeremotechests.benchmark;
+
+import com.github.projectsandstone.spongeremotechests.api.RemoteContainer;
+import com.github.projectsandstone.spongeremotechests.util.MapSetView;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Iteration of {@link MapSetView} over a map of containers by owner.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MapSetViewBenchmark {
+
+    @Param({"10000", "100000"})
+    public int links;
+
+    private Map<UUID, Set<RemoteContainer>> view;
+
+    @Setup
+    public void setup() {
+        Map<UUID, Set<RemoteContainer>> map = new ConcurrentHashMap<>();
+
+        for (Map<UUID, Collection<RemoteContainer>> batch : Benchmarks.batches(this.links))
+            batch.forEach((owner, containers) -> map.computeIfAbsent(owner, uuid -> ConcurrentHashMap.newKeySet()).addAll(containers));
+
+        this.view = new MapSetView<>(map);
+    }
+
+    @Benchmark
+    public void iterateEntries(Blackhole blackhole) {
+        for (Map.Entry<UUID, Set<RemoteContainer>> entry : this.view.entrySet())
+            blackhole.consume(entry.getValue().size());
+    }
+
+    @Benchmark
+    public void iterateContainers(Blackhole blackhole) {
+        for (Set<RemoteContainer> containers : this.view.values())
+            for (RemoteContainer container : containers)
+                blackhole.consume(container);
+    }
+
+    @Benchmark
+    public Set<RemoteContainer> get() {
+        return this.view.get(Benchmarks.owner(0));
+    }
+}
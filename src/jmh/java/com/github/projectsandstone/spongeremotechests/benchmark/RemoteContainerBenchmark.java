@@ -0,0 +1,99 @@
+/**
+ *      SpongeRemoteChests - Access your containers remotely.
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2017 Sandstone <https://github.com/ProjectSandstone/SpongeRemoteChests/>
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.projectsandstone.spongeremotechests.benchmark;
+
+import com.github.projectsandstone.spongeremotechests.api.RemoteContainer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hashing and equality of containers created by {@link com.github.projectsandstone.spongeremotechests.api.factory.RemoteContainerFactory}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RemoteContainerBenchmark {
+
+    private static final int CONTAINERS = 10_000;
+
+    private RemoteContainer[] containers;
+    private RemoteContainer[] copies;
+    private Set<RemoteContainer> set;
+    private int index;
+
+    @Setup
+    public void setup() {
+        this.containers = new RemoteContainer[CONTAINERS];
+        this.copies = new RemoteContainer[CONTAINERS];
+
+        for (int i = 0; i < CONTAINERS; i++) {
+            this.containers[i] = Benchmarks.container(i);
+            this.copies[i] = Benchmarks.container(i);
+        }
+
+        this.set = new HashSet<>();
+
+        for (RemoteContainer container : this.containers)
+            this.set.add(container);
+    }
+
+    @Benchmark
+    public int hash() {
+        return this.copies[this.next()].hashCode();
+    }
+
+    @Benchmark
+    public boolean equal() {
+        int i = this.next();
+
+        return this.containers[i].equals(this.copies[i]);
+    }
+
+    @Benchmark
+    public boolean setContains() {
+        return this.set.contains(this.copies[this.next()]);
+    }
+
+    private int next() {
+        int i = this.index;
+
+        this.index = i + 1 == CONTAINERS ? 0 : i + 1;
+
+        return i;
+    }
+}
@@ -0,0 +1,178 @@
+/**
+ *      SpongeRemoteChests - Access your containers remotely.
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2017 Sandstone <https://github.com/ProjectSandstone/SpongeRemoteChests/>
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.projectsandstone.spongeremotechests.benchmark;
+
+import com.google.common.reflect.TypeToken;
+
+import com.github.projectsandstone.spongeremotechests.api.RemoteContainer;
+import com.github.projectsandstone.spongeremotechests.config.RemoteContainerSerializer;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.spongepowered.api.Game;
+import org.spongepowered.api.Server;
+import org.spongepowered.api.Sponge;
+import org.spongepowered.api.scheduler.Scheduler;
+import org.spongepowered.api.scheduler.Task;
+import org.spongepowered.api.service.ServiceManager;
+import org.spongepowered.api.service.sql.SqlService;
+import org.spongepowered.api.world.World;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+import ninja.leaping.configurate.objectmapping.serialize.TypeSerializers;
+
+/**
+ * Stubs of Sponge services used by backends, so benchmarks run without a server.
+ *
+ * Stubs are {@link Proxy proxies} which answer configured methods and return defaults for other
+ * methods (the proxy itself for builder methods, empty optionals, zero or null). Scheduled tasks
+ * never run and all worlds are loaded.
+ */
+final class SpongeStubs {
+
+    /**
+     * World of all benchmark containers.
+     */
+    static final UUID WORLD = new UUID(0x53524342L, 0x53524342L);
+
+    private static boolean installed;
+
+    private SpongeStubs() {
+        throw new IllegalStateException();
+    }
+
+    /**
+     * Installs stubs in {@link Sponge}.
+     *
+     * @param dataDir Directory to resolve relative H2 database paths against.
+     */
+    static synchronized void install(Path dataDir) throws ReflectiveOperationException {
+        if (installed)
+            return;
+
+        World world = SpongeStubs.stub(World.class, Collections.singletonMap("getUniqueId", args -> WORLD));
+
+        Map<String, Function<Object[], Object>> serverAnswers = new HashMap<>();
+        serverAnswers.put("getWorld", args -> args[0] instanceof UUID && !WORLD.equals(args[0]) ? Optional.empty() : Optional.of(world));
+        serverAnswers.put("isMainThread", args -> true);
+        Server server = SpongeStubs.stub(Server.class, serverAnswers);
+
+        SqlService sqlService = SpongeStubs.stub(SqlService.class,
+                Collections.singletonMap("getDataSource", args -> SpongeStubs.h2((String) args[args.length - 1], dataDir)));
+
+        ServiceManager serviceManager = SpongeStubs.stub(ServiceManager.class, Collections.singletonMap("provide",
+                args -> args[0] == SqlService.class ? Optional.of(sqlService) : Optional.empty()));
+
+        Task task = SpongeStubs.stub(Task.class, Collections.emptyMap());
+        Task.Builder taskBuilder = SpongeStubs.stub(Task.Builder.class, Collections.singletonMap("submit", args -> task));
+        Scheduler scheduler = SpongeStubs.stub(Scheduler.class, Collections.singletonMap("createTaskBuilder", args -> taskBuilder));
+
+        Map<String, Function<Object[], Object>> gameAnswers = new HashMap<>();
+        gameAnswers.put("getServer", args -> server);
+        gameAnswers.put("isServerAvailable", args -> true);
+        gameAnswers.put("getServiceManager", args -> serviceManager);
+        gameAnswers.put("getScheduler", args -> scheduler);
+        Game game = SpongeStubs.stub(Game.class, gameAnswers);
+
+        // Sponge keeps injected services in static fields
+        for (Field field : Sponge.class.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers()) || Modifier.isFinal(field.getModifiers()))
+                continue;
+
+            for (Object service : new Object[]{game, serviceManager, scheduler}) {
+                if (field.getType().isInstance(service)) {
+                    field.setAccessible(true);
+                    field.set(null, service);
+                }
+            }
+        }
+
+        TypeSerializers.getDefaultSerializers().registerType(TypeToken.of(RemoteContainer.class), new RemoteContainerSerializer());
+
+        installed = true;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T stub(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> answer = answers.get(method.getName());
+
+            if (answer != null)
+                return answer.apply(args == null ? new Object[0] : args);
+
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return type.getSimpleName() + " stub";
+            }
+
+            Class<?> returnType = method.getReturnType();
+
+            if (returnType.isInstance(proxy))
+                return proxy;
+
+            if (returnType == Optional.class)
+                return Optional.empty();
+
+            if (returnType.isPrimitive() && returnType != void.class)
+                return Array.get(Array.newInstance(returnType, 1), 0);
+
+            return null;
+        });
+    }
+
+    /**
+     * Creates an H2 data source, resolving relative database paths against {@code dataDir} like
+     * Sponge resolves them against the config directory.
+     */
+    private static JdbcDataSource h2(String url, Path dataDir) {
+        String prefix = "jdbc:h2:";
+        String path = url.substring(prefix.length());
+
+        if (!path.startsWith("mem:") && !path.startsWith("/") && !path.startsWith("~") && !path.startsWith("./"))
+            url = prefix + dataDir.resolve(path).toAbsolutePath();
+
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL(url);
+
+        return dataSource;
+    }
+}
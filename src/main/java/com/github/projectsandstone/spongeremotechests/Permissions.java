@@ -32,4 +32,6 @@ public final class Permissions {
     }
 
     public static final String LINK_PERMISSION = "spongeremotechests.link";
+    public static final String BYPASS_LIMIT_PERMISSION = "spongeremotechests.bypass.limit";
+    public static final String STATS_PERMISSION = "spongeremotechests.command.stats";
 }
@@ -30,37 +30,54 @@ package com.github.projectsandstone.spongeremotechests;
 import com.google.common.reflect.TypeToken;
 
 import com.github.projectsandstone.spongeremotechests.api.RemoteContainer;
+import com.github.projectsandstone.spongeremotechests.command.StatsCommand;
 import com.github.projectsandstone.spongeremotechests.api.manager.ContainerManager;
 import com.github.projectsandstone.spongeremotechests.config.Config;
 import com.github.projectsandstone.spongeremotechests.config.RemoteContainerSerializer;
+import com.github.projectsandstone.spongeremotechests.config.SavesConfig;
 import com.github.projectsandstone.spongeremotechests.listener.RemoteChestsListener;
 import com.github.projectsandstone.spongeremotechests.manager.BackedContainerManager;
 import com.github.projectsandstone.spongeremotechests.manager.Backend;
+import com.github.projectsandstone.spongeremotechests.manager.BackendExecutors;
+import com.github.projectsandstone.spongeremotechests.manager.BackendMigrator;
+import com.github.projectsandstone.spongeremotechests.manager.BinaryBackend;
+import com.github.projectsandstone.spongeremotechests.manager.CachedBackend;
 import com.github.projectsandstone.spongeremotechests.manager.ConfigBackend;
+import com.github.projectsandstone.spongeremotechests.manager.InstrumentedBackend;
+import com.github.projectsandstone.spongeremotechests.manager.LinkValidator;
+import com.github.projectsandstone.spongeremotechests.manager.RemoteOpener;
 import com.github.projectsandstone.spongeremotechests.manager.SqlBackend;
+import com.github.projectsandstone.spongeremotechests.metrics.Metrics;
+import com.github.projectsandstone.spongeremotechests.util.InternPool;
 
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
 import org.spongepowered.api.Game;
 import org.spongepowered.api.Platform;
+import org.spongepowered.api.command.spec.CommandSpec;
 import org.spongepowered.api.config.ConfigDir;
 import org.spongepowered.api.event.Listener;
 import org.spongepowered.api.event.game.GameReloadEvent;
+import org.spongepowered.api.event.game.state.GameAboutToStartServerEvent;
 import org.spongepowered.api.event.game.state.GameInitializationEvent;
 import org.spongepowered.api.event.game.state.GamePostInitializationEvent;
 import org.spongepowered.api.event.game.state.GamePreInitializationEvent;
 import org.spongepowered.api.event.game.state.GameStoppingEvent;
 import org.spongepowered.api.plugin.Dependency;
 import org.spongepowered.api.plugin.Plugin;
+import org.spongepowered.api.scheduler.Task;
+import org.spongepowered.api.text.Text;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.HashMap;
-import java.util.logging.Logger;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 
 import ninja.leaping.configurate.ConfigurationOptions;
 import ninja.leaping.configurate.commented.CommentedConfigurationNode;
-import ninja.leaping.configurate.hocon.HoconConfigurationLoader;
 import ninja.leaping.configurate.loader.ConfigurationLoader;
 import ninja.leaping.configurate.objectmapping.GuiceObjectMapperFactory;
 import ninja.leaping.configurate.objectmapping.ObjectMappingException;
@@ -75,15 +92,24 @@ import ninja.leaping.configurate.objectmapping.serialize.TypeSerializers;
         dependencies = @Dependency(id = Platform.API_ID, version = "6.0.0"))
 public class SpongeRemoteChestsPlugin {
 
+    private static final int MIGRATION_BATCH_SIZE = 1000;
+
     private final Logger logger;
     private final Game game;
     private final GuiceObjectMapperFactory factory;
     private final ConfigurationLoader<CommentedConfigurationNode> configLoader;
     private final Path configDir;
+    private ExecutorService executor;
+    private Backend backend;
     private ContainerManager manager;
+    private RemoteOpener opener;
+    private LinkValidator validator;
+    @Nullable
+    private Metrics metrics;
+    @Nullable
+    private Task metricsTask;
     private Config config;
     private CommentedConfigurationNode configNode;
-    private CommentedConfigurationNode savesNode;
 
     @Inject
     public SpongeRemoteChestsPlugin(Logger logger,
@@ -104,30 +130,107 @@ public class SpongeRemoteChestsPlugin {
         this.load();
         this.logger.info("Loaded config!");
 
+        // Saves are loaded by backend
+        SpongeRemoteChestsPlugin.registerSerializers();
+
+        if (this.config.getMetricsConfig().isEnabled())
+            this.metrics = new Metrics(this.logger, this.config.getMetricsConfig().getSlowThreshold());
+
         Backend backend;
 
         if(!config.isUseDb()) {
-            backend = new ConfigBackend(HoconConfigurationLoader.builder()
-                    .setPath(this.configDir.resolve("saves.conf"))
-                    .build());
+            if (this.config.getSavesConfig().getFormat() == SavesConfig.Format.BINARY)
+                backend = this.instrument(this.createBinaryBackend(), "storage");
+            else
+                backend = this.instrument(this.createConfigBackend(), "storage");
         } else {
-            backend = new SqlBackend(this, logger, service, this.config.getDatabaseConfig());
+            this.executor = BackendExecutors.create(this.config.getExecutorConfig(), this.logger);
+            backend = this.instrument(new SqlBackend(this, this.logger, this.config.getDatabaseConfig(), this.executor), "storage");
+
+            // Operations seen by the manager, including those served by the cache
+            if (this.config.getDatabaseConfig().getCacheConfig().isEnabled())
+                backend = this.instrument(new CachedBackend(backend, this.config.getDatabaseConfig().getCacheConfig()), "manager");
         }
 
-        this.manager = new BackedContainerManager(backend);
+        this.backend = backend;
+        this.manager = new BackedContainerManager(this, backend, this.config.getDatabaseConfig().getCacheConfig().getReleaseDelay());
+
+        this.logger.info("Interned " + InternPool.NAMES + "; " + InternPool.WORLDS + ".");
+
+        if (this.metrics != null && this.config.getMetricsConfig().getWriteInterval() > 0)
+            this.metricsTask = this.game.getScheduler().createTaskBuilder()
+                    .async()
+                    .delay(this.config.getMetricsConfig().getWriteInterval(), TimeUnit.SECONDS)
+                    .interval(this.config.getMetricsConfig().getWriteInterval(), TimeUnit.SECONDS)
+                    .name("SpongeRemoteChests - Write metrics")
+                    .execute(this::writeMetrics)
+                    .submit(this);
+    }
+
+    private Backend instrument(Backend backend, String prefix) {
+        if (this.metrics == null)
+            return backend;
+
+        return new InstrumentedBackend(backend, this.metrics, prefix);
+    }
+
+    private void writeMetrics() {
+        try {
+            this.metrics.write(this.configDir.resolve("metrics.txt"));
+        } catch (IOException e) {
+            this.logger.error("Failed to write metrics.", e);
+        }
+    }
+
+    private ConfigBackend createConfigBackend() {
+        return new ConfigBackend(this, this.logger, this.configDir.resolve("saves"), this.configDir.resolve("saves.conf"),
+                this.config.getSavesConfig());
+    }
+
+    private BinaryBackend createBinaryBackend() {
+        Path file = this.configDir.resolve("containers.bin");
+        boolean migrate = !Files.exists(file)
+                && (Files.exists(this.configDir.resolve("saves")) || Files.exists(this.configDir.resolve("saves.conf")));
+
+        BinaryBackend backend = new BinaryBackend(this, this.logger, file, this.config.getSavesConfig());
+
+        if (migrate) {
+            this.logger.info("Migrating saves to '" + file.getFileName() + "'...");
+
+            ConfigBackend configBackend = this.createConfigBackend();
+            long count = BackendMigrator.migrate(configBackend, backend, MIGRATION_BATCH_SIZE);
+
+            configBackend.close();
+            backend.flush();
+
+            this.logger.info("Migrated " + count + " containers!");
+        }
+
+        return backend;
     }
 
     @Listener
     public void init(GameInitializationEvent event) {
-        SpongeRemoteChestsPlugin.registerSerializers();
         this.registerRecipes();
-        this.game.getEventManager().registerListeners(this, new RemoteChestsListener(this.game, this.config));
+        this.registerCommands();
+        this.game.getEventManager().registerListeners(this, this.manager);
+        this.game.getEventManager().registerListeners(this, new RemoteChestsListener(this, this.game, this.config));
+
+        this.validator = new LinkValidator(this, this.logger, this.manager, this.config.getValidationConfig(), this.config.isUseDb());
+        this.game.getEventManager().registerListeners(this, this.validator);
+    }
+
+    @Listener
+    public void aboutToStart(GameAboutToStartServerEvent event) {
+        // Before worlds are loaded, to register chunk tickets callback
+        this.opener = new RemoteOpener(this, this.config.getOpenConfig());
+        this.game.getEventManager().registerListeners(this, this.opener);
     }
 
     @Listener
     public void reload(GameReloadEvent event) throws IOException, ObjectMappingException {
         this.logger.info("Reloading SpongeRemoteChests...");
-        this.finish();
+        this.game.getRegistry().getRecipeRegistry().remove(this.config.getRecipes().getLinkingWandRecipe());
         this.load();
         this.registerRecipes();
         this.logger.info("SpongeRemoteChests reloaded!");
@@ -141,7 +244,45 @@ public class SpongeRemoteChestsPlugin {
     @Listener
     public void stopping(GameStoppingEvent event) throws ObjectMappingException {
         this.save();
-        this.finish();
+
+        if (this.opener != null)
+            this.opener.close();
+
+        if (this.metricsTask != null) {
+            this.metricsTask.cancel();
+            this.writeMetrics();
+        }
+
+        if (this.validator != null)
+            this.validator.close();
+
+        if (this.executor != null)
+            BackendExecutors.shutdown(this.executor, this.config.getExecutorConfig(), this.logger);
+
+        this.backend.close();
+    }
+
+    /**
+     * Gets the opener of remote containers, available once the server is about to start.
+     */
+    public RemoteOpener getOpener() {
+        return this.opener;
+    }
+
+    /**
+     * Gets the validator of links.
+     */
+    public LinkValidator getValidator() {
+        return this.validator;
+    }
+
+    private void registerCommands() {
+        CommandSpec rmc = CommandSpec.builder()
+                .description(Text.of("SpongeRemoteChests commands."))
+                .child(StatsCommand.spec(this.metrics), "stats")
+                .build();
+
+        this.game.getCommandManager().register(this, rmc, "rmc", "remotechests");
     }
 
     private void registerRecipes() {
@@ -160,26 +301,12 @@ public class SpongeRemoteChestsPlugin {
         this.configNode = this.configLoader.load(ConfigurationOptions.defaults().setObjectMapperFactory(factory));
 
         this.config = this.configNode.getValue(TypeToken.of(Config.class), new Config());
-
-        // Saves
-        this.savesNode = this.savesLoader.load();
-
-        this.manager.set(this.savesNode.getValue(SAVE_TOKEN, this.manager.getAllContainers()));
-
     }
 
     private void save() throws ObjectMappingException {
         if(this.config != null) {
             this.configNode.setValue(TypeToken.of(Config.class), this.config);
         }
-
-        this.savesNode.setValue(SAVE_TOKEN, this.manager.getAllContainers());
-    }
-
-    private void finish() {
-        this.config = null;
-        this.manager.set(new HashMap<>());
-        this.game.getRegistry().getRecipeRegistry().remove(this.config.getRecipes().getLinkingWandRecipe());
     }
 
 }
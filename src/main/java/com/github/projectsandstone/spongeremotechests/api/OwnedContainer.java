@@ -0,0 +1,91 @@
+/**
+ *      SpongeRemoteChests - Access your containers remotely.
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2017 Sandstone <https://github.com/ProjectSandstone/SpongeRemoteChests/>
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.projectsandstone.spongeremotechests.api;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * A {@link RemoteContainer} and the unique id of its owner.
+ *
+ * Owner is not resolved to a {@link org.spongepowered.api.entity.living.player.User}, use {@link
+ * com.github.projectsandstone.spongeremotechests.api.manager.ContainerManager#resolveOwner(UUID)}
+ * when the user is needed.
+ */
+public final class OwnedContainer {
+
+    @NotNull
+    private final UUID owner;
+    @NotNull
+    private final RemoteContainer container;
+
+    public OwnedContainer(@NotNull UUID owner, @NotNull RemoteContainer container) {
+        this.owner = Objects.requireNonNull(owner);
+        this.container = Objects.requireNonNull(container);
+    }
+
+    /**
+     * Gets the unique id of the owner of {@link #getContainer() container}.
+     *
+     * @return Unique id of the owner of {@link #getContainer() container}.
+     */
+    @NotNull
+    public UUID getOwner() {
+        return this.owner;
+    }
+
+    /**
+     * Gets the container.
+     *
+     * @return Container.
+     */
+    @NotNull
+    public RemoteContainer getContainer() {
+        return this.container;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * this.owner.hashCode() + this.container.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+
+        if (obj instanceof OwnedContainer) {
+            OwnedContainer other = (OwnedContainer) obj;
+
+            return this.owner.equals(other.owner)
+                    && this.container.equals(other.container);
+        }
+
+        return super.equals(obj);
+    }
+}
@@ -31,11 +31,13 @@ import org.spongepowered.api.world.Location;
 import org.spongepowered.api.world.World;
 
 import java.util.Optional;
+import java.util.UUID;
 
 /**
  * Represents a remote container in-game.
  *
- * {@link Object#equals(Object)} and {@link Object#hashCode()} MUST be implemented.
+ * {@link Object#equals(Object)} and {@link Object#hashCode()} MUST be implemented, comparing {@link
+ * #getWorldUniqueId() world} and block position.
  *
  * Doesn't hash or compare the {@link #getName()}, it is not a identification.
  */
@@ -56,6 +58,43 @@ public interface RemoteContainer {
      */
     Location<World> getLocation();
 
+    /**
+     * Gets the unique id of the {@link World} of the container, without creating the {@link
+     * #getLocation() location}.
+     *
+     * @return Unique id of the {@link World} of the container.
+     */
+    default UUID getWorldUniqueId() {
+        return this.getLocation().getExtent().getUniqueId();
+    }
+
+    /**
+     * Gets the block x of the container, without creating the {@link #getLocation() location}.
+     *
+     * @return Block x of the container.
+     */
+    default int getBlockX() {
+        return this.getLocation().getBlockX();
+    }
+
+    /**
+     * Gets the block y of the container, without creating the {@link #getLocation() location}.
+     *
+     * @return Block y of the container.
+     */
+    default int getBlockY() {
+        return this.getLocation().getBlockY();
+    }
+
+    /**
+     * Gets the block z of the container, without creating the {@link #getLocation() location}.
+     *
+     * @return Block z of the container.
+     */
+    default int getBlockZ() {
+        return this.getLocation().getBlockZ();
+    }
+
     @Override
     int hashCode();
 
@@ -27,36 +27,68 @@
  */
 package com.github.projectsandstone.spongeremotechests.api.factory;
 
+import com.flowpowered.math.vector.Vector3i;
+
 import com.github.projectsandstone.spongeremotechests.api.RemoteContainer;
+import com.github.projectsandstone.spongeremotechests.util.InternPool;
+import com.github.projectsandstone.spongeremotechests.util.Positions;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.spongepowered.api.Sponge;
 import org.spongepowered.api.world.Location;
 import org.spongepowered.api.world.World;
 
 import java.util.Optional;
+import java.util.UUID;
 
 public enum RemoteContainerFactory {
     ;
 
     public static RemoteContainer createChest(@Nullable String name, @NotNull Location<World> location) {
-        return new RemoteContainerImpl(name, location);
+        return RemoteContainerFactory.createChest(name, location.getExtent().getUniqueId(),
+                location.getBlockX(), location.getBlockY(), location.getBlockZ());
     }
 
     public static RemoteContainer createChest(@NotNull Location<World> location) {
         return RemoteContainerFactory.createChest(null, location);
     }
 
+    /**
+     * Creates a container at block {@code x}, {@code y}, {@code z} of world with unique id {@code
+     * world}. The {@link RemoteContainer#getLocation() location} is only resolved when requested,
+     * so the world is not required to be loaded.
+     *
+     * {@code name} and {@code world} are interned in {@link InternPool#NAMES} and {@link
+     * InternPool#WORLDS}, so all containers share the same instances of equal names and worlds.
+     *
+     * @param name  Container name.
+     * @param world World unique id.
+     * @param x     Block x.
+     * @param y     Block y.
+     * @param z     Block z.
+     * @return Container.
+     */
+    public static RemoteContainer createChest(@Nullable String name, @NotNull UUID world, int x, int y, int z) {
+        return new RemoteContainerImpl(InternPool.NAMES.intern(name), InternPool.WORLDS.intern(world), Positions.pack(x, y, z));
+    }
+
+    /**
+     * Container stored as world unique id and packed block position (see {@link Positions}), the
+     * {@link Location} is created on each {@link #getLocation()} call.
+     */
     private static final class RemoteContainerImpl implements RemoteContainer {
 
         @Nullable
         private final String name;
         @NotNull
-        private final Location<World> location;
+        private final UUID world;
+        private final long position;
 
-        private RemoteContainerImpl(@Nullable String name, @NotNull Location<World> location) {
+        private RemoteContainerImpl(@Nullable String name, @NotNull UUID world, long position) {
             this.name = name;
-            this.location = location;
+            this.world = world;
+            this.position = position;
         }
 
         @Override
@@ -64,23 +96,60 @@ public enum RemoteContainerFactory {
             return Optional.ofNullable(this.name);
         }
 
+        /**
+         * @throws IllegalStateException If world of this container is not loaded.
+         */
         @Override
         public @NotNull Location<World> getLocation() {
-            return this.location;
+            Optional<World> world = Sponge.getServer().getWorld(this.world);
+
+            if (!world.isPresent())
+                throw new IllegalStateException("World with uuid '" + this.world + "' is not loaded.");
+
+            return world.get().getLocation(new Vector3i(this.getBlockX(), this.getBlockY(), this.getBlockZ()));
+        }
+
+        @Override
+        public UUID getWorldUniqueId() {
+            return this.world;
+        }
+
+        @Override
+        public int getBlockX() {
+            return Positions.unpackX(this.position);
+        }
+
+        @Override
+        public int getBlockY() {
+            return Positions.unpackY(this.position);
+        }
+
+        @Override
+        public int getBlockZ() {
+            return Positions.unpackZ(this.position);
         }
 
         @Override
         public int hashCode() {
-            return this.getLocation().hashCode();
+            return 31 * this.world.hashCode() + Long.hashCode(this.position);
         }
 
         @Override
         public boolean equals(Object obj) {
 
+            if (obj instanceof RemoteContainerImpl) {
+                RemoteContainerImpl other = (RemoteContainerImpl) obj;
+
+                return this.position == other.position && this.world.equals(other.world);
+            }
+
             if (obj instanceof RemoteContainer) {
                 RemoteContainer other = (RemoteContainer) obj;
 
-                return this.getLocation().equals(other.getLocation());
+                return this.getBlockX() == other.getBlockX()
+                        && this.getBlockY() == other.getBlockY()
+                        && this.getBlockZ() == other.getBlockZ()
+                        && this.world.equals(other.getWorldUniqueId());
             }
 
             return super.equals(obj);
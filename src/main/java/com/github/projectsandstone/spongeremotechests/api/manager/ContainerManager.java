@@ -27,17 +27,28 @@
  */
 package com.github.projectsandstone.spongeremotechests.api.manager;
 
+import com.flowpowered.math.vector.Vector3i;
+
+import com.github.projectsandstone.spongeremotechests.api.OwnedContainer;
 import com.github.projectsandstone.spongeremotechests.api.RemoteContainer;
+import com.github.projectsandstone.spongeremotechests.api.Result;
+import com.github.projectsandstone.spongeremotechests.api.Results;
+import com.github.projectsandstone.spongeremotechests.api.query.ContainerQuery;
 
 import org.jetbrains.annotations.NotNull;
 import org.spongepowered.api.entity.living.player.User;
 import org.spongepowered.api.world.Location;
 import org.spongepowered.api.world.World;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 
 /**
@@ -59,6 +70,56 @@ public interface ContainerManager {
      */
     CompletableFuture<Boolean> registerUserContainer(@NotNull User user, @NotNull RemoteContainer remoteContainer);
 
+    /**
+     * Register a User RemoteContainer if {@code user} has less than {@code limit} containers.
+     * Counting and registering is atomic, so concurrent registrations cannot exceed {@code limit}.
+     *
+     * This method doesn't check for rights or economy founds.
+     *
+     * @param user            Owner of the container.
+     * @param remoteContainer Container information.
+     * @param limit           Maximum number of containers of {@code user}.
+     * @return {@link Results#SUCCESS} if registered with success, {@link Results#LIMIT} if {@code
+     * user} already has {@code limit} containers, or {@link Results#FAILED} if this container is
+     * already registered.
+     */
+    CompletableFuture<Result> registerUserContainer(@NotNull User user, @NotNull RemoteContainer remoteContainer, int limit);
+
+    /**
+     * Counts containers of {@code user} without loading them.
+     *
+     * @param user Owner of containers.
+     * @return Number of containers of {@code user}.
+     */
+    CompletableFuture<Integer> countUserContainers(@NotNull User user);
+
+    /**
+     * Register many RemoteContainers of many Users at once. Duplicated containers of a user are
+     * registered only once.
+     *
+     * This method doesn't check for rights or economy founds.
+     *
+     * @param containers Containers mapped by owner.
+     * @return Result of registration of each distinct container of each user, mapped by owner. True
+     * if registered with success, false if the container is already registered.
+     */
+    CompletableFuture<Map<User, Map<RemoteContainer, Boolean>>> registerUserContainers(@NotNull Map<User, ? extends Collection<RemoteContainer>> containers);
+
+    /**
+     * Register many User RemoteContainers at once. Duplicated containers are registered only once.
+     *
+     * This method doesn't check for rights or economy founds.
+     *
+     * @param user             Owner of the containers.
+     * @param remoteContainers Containers information.
+     * @return Result of registration of each distinct container. True if registered with success,
+     * false if the container is already registered.
+     */
+    default CompletableFuture<Map<RemoteContainer, Boolean>> registerUserContainers(@NotNull User user, @NotNull Collection<RemoteContainer> remoteContainers) {
+        return this.registerUserContainers(Collections.singletonMap(user, remoteContainers))
+                .thenApply(results -> results.getOrDefault(user, Collections.emptyMap()));
+    }
+
     /**
      * Unregister User remote container.
      *
@@ -68,6 +129,18 @@ public interface ContainerManager {
      */
     CompletableFuture<Boolean> unregisterUserContainer(@NotNull User user, @NotNull Predicate<RemoteContainer> predicate);
 
+    /**
+     * Unregister containers of all users which matches {@code query}.
+     *
+     * Typed queries (see {@link ContainerQuery}) are evaluated natively by the backend, for example,
+     * removing all containers of a world with {@link ContainerQuery#inWorld(World)} is a single
+     * statement in a SQL backend.
+     *
+     * @param query Query to match containers to remove.
+     * @return True if any container was removed as result of this operation.
+     */
+    CompletableFuture<Boolean> unregisterContainers(@NotNull ContainerQuery query);
+
     /**
      * Gets first {@code user} {@link RemoteContainer} that matches {@code predicate}.
      *
@@ -115,11 +188,84 @@ public interface ContainerManager {
     /**
      * Gets a view of all registered containers.
      *
-     * @return A view of all registered containers.
+     * @return A view of all registered containers, containers of owners which cannot be resolved
+     * are left out.
+     * @deprecated Resolves every owner, which may read player data of offline users from disk, use
+     * {@link #getAllContainersByUniqueId()} instead.
      */
+    @Deprecated
     @NotNull
     CompletableFuture<Map<User, Set<RemoteContainer>>> getAllContainers();
 
+    /**
+     * Gets a view of all registered containers.
+     *
+     * <br> <b>All containers are loaded in memory, prefer {@link #forEachContainer(int, Consumer)}
+     * to process large amounts of containers.</b>
+     *
+     * @return A view of all registered containers, mapped by unique id of owner (see {@link
+     * #resolveOwner(UUID)}).
+     */
+    @NotNull
+    CompletableFuture<Map<UUID, Set<RemoteContainer>>> getAllContainersByUniqueId();
+
+    /**
+     * Reads all registered containers in pages of at most {@code batchSize} containers and passes
+     * each page to {@code consumer}, only one page is held in memory at a time.
+     *
+     * @param batchSize Max number of containers of each page.
+     * @param consumer  Consumer of pages, may be called in any thread, but never concurrently.
+     * @return Future which completes after last page is consumed.
+     */
+    @NotNull
+    CompletableFuture<Void> forEachContainer(int batchSize, @NotNull Consumer<List<OwnedContainer>> consumer);
+
+    /**
+     * Gets all links to the container at {@code location}.
+     *
+     * @param location Location of container.
+     * @return Map of unique ids of all users linked to the container at {@code location} and their
+     * links, or empty {@link Map} if no one is linked to this container.
+     */
+    @NotNull
+    CompletableFuture<Map<UUID, RemoteContainer>> getLinksAt(@NotNull Location<World> location);
+
+    /**
+     * Gets all links to containers in chunk {@code chunkX}, {@code chunkZ} of {@code world}.
+     *
+     * @param world  World of the chunk.
+     * @param chunkX Chunk x.
+     * @param chunkZ Chunk z.
+     * @return Map of unique ids of all users linked to containers in the chunk and their links in
+     * this chunk, or empty {@link Map} if no one is linked to a container in this chunk.
+     */
+    @NotNull
+    CompletableFuture<Map<UUID, Set<RemoteContainer>>> getLinksInChunk(@NotNull World world, int chunkX, int chunkZ);
+
+    /**
+     * Gets all links to containers in {@code chunks} of {@code world}, looked up together, so
+     * checking many chunks does not cost one lookup per chunk.
+     *
+     * @param world  World of the chunks.
+     * @param chunks Positions of the chunks, y is ignored.
+     * @return Map of unique ids of all users linked to containers in the chunks and their links in
+     * these chunks, or empty {@link Map} if no one is linked to a container in these chunks.
+     */
+    @NotNull
+    CompletableFuture<Map<UUID, Set<RemoteContainer>>> getLinksInChunks(@NotNull World world, @NotNull Collection<Vector3i> chunks);
+
+    /**
+     * Resolves the owner with unique id {@code owner}. Containers are mapped by unique id of owner,
+     * so bulk reads do not need to load data of every owner. Recently resolved owners are kept in
+     * memory, resolving other owners may read player data from disk.
+     *
+     * @param owner Unique id of owner.
+     * @return Owner with unique id {@code owner}, or {@link Optional#empty()} if this user does not
+     * exist.
+     */
+    @NotNull
+    Optional<User> resolveOwner(@NotNull UUID owner);
+
     /**
      * Unregister User remote container
      *
@@ -128,19 +274,21 @@ public interface ContainerManager {
      * @return True if unregistered with success, false if this containers is not registered.
      */
     default CompletableFuture<Boolean> unregisterUserContainer(@NotNull User user, @NotNull RemoteContainer remoteContainer) {
-        return this.unregisterUserContainer(user, remoteContainer0 -> remoteContainer0.equals(remoteContainer));
+        return this.unregisterUserContainer(user, ContainerQuery.at(remoteContainer));
     }
 
     /**
-     * Unregister all containers of {@code user} which has name: {@code name}.
+     * Gets a container of {@code user} which has name: {@code name}. Implementations should look up
+     * names in an index instead of testing each container of {@code user}.
      *
      * @param user User.
      * @param name Name of container.
-     * @return True if any container was removed as result of this operation.
+     * @return A container of {@code user} named {@code name}, or {@link Optional#empty()} if there
+     * is no such container.
      */
     @NotNull
     default CompletableFuture<Optional<RemoteContainer>> getUserContainer(@NotNull User user, @NotNull String name) {
-        return this.getUserContainer(user, remoteContainer -> remoteContainer.getName().filter(s -> s.equals(name)).isPresent());
+        return this.getUserContainer(user, ContainerQuery.named(name));
     }
 
     /**
@@ -152,7 +300,7 @@ public interface ContainerManager {
      */
     @NotNull
     default CompletableFuture<Optional<RemoteContainer>> getUserContainer(@NotNull User user, @NotNull Location<World> location) {
-        return this.getUserContainer(user, remoteContainer -> remoteContainer.getLocation().equals(location));
+        return this.getUserContainer(user, ContainerQuery.at(location));
     }
 
 }
@@ -0,0 +1,358 @@
+/**
+ *      SpongeRemoteChests - Access your containers remotely.
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2017 Sandstone <https://github.com/ProjectSandstone/SpongeRemoteChests/>
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.projectsandstone.spongeremotechests.api.query;
+
+import com.flowpowered.math.vector.Vector3i;
+import com.github.projectsandstone.spongeremotechests.api.RemoteContainer;
+
+import org.jetbrains.annotations.NotNull;
+import org.spongepowered.api.world.Location;
+import org.spongepowered.api.world.World;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Typed filter of {@link RemoteContainer RemoteContainers}.
+ *
+ * Backends may evaluate typed queries natively (a SQL backend translates them to a {@code WHERE}
+ * clause), while queries created from arbitrary {@link Predicate Predicates} with {@link
+ * #matching(Predicate)} can only be evaluated by testing each container.
+ */
+public abstract class ContainerQuery implements Predicate<RemoteContainer> {
+
+    ContainerQuery() {
+    }
+
+    /**
+     * Creates a query which matches containers named {@code name}.
+     *
+     * @param name Name of container.
+     * @return Query which matches containers named {@code name}.
+     */
+    public static ContainerQuery named(@NotNull String name) {
+        return new Named(name);
+    }
+
+    /**
+     * Creates a query which matches the container at {@code location}.
+     *
+     * @param location Location of container.
+     * @return Query which matches the container at {@code location}.
+     */
+    public static ContainerQuery at(@NotNull Location<World> location) {
+        return new At(location.getExtent().getUniqueId(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
+    /**
+     * Creates a query which matches the container at the location of {@code remoteContainer}.
+     *
+     * @param remoteContainer Container.
+     * @return Query which matches the container at the location of {@code remoteContainer}.
+     */
+    public static ContainerQuery at(@NotNull RemoteContainer remoteContainer) {
+        return new At(remoteContainer.getWorldUniqueId(), remoteContainer.getBlockX(), remoteContainer.getBlockY(), remoteContainer.getBlockZ());
+    }
+
+    /**
+     * Creates a query which matches all containers in {@code world}.
+     *
+     * @param world World of containers.
+     * @return Query which matches all containers in {@code world}.
+     */
+    public static ContainerQuery inWorld(@NotNull World world) {
+        return ContainerQuery.inWorld(world.getUniqueId());
+    }
+
+    /**
+     * Creates a query which matches all containers in world with unique id {@code world}.
+     *
+     * @param world Unique id of world of containers.
+     * @return Query which matches all containers in world {@code world}.
+     */
+    public static ContainerQuery inWorld(@NotNull UUID world) {
+        return new InWorld(world);
+    }
+
+    /**
+     * Creates a query which matches all containers in the box between {@code from} and {@code to}
+     * (both inclusive) of {@code world}.
+     *
+     * @param world World of containers.
+     * @param from  A corner of the box.
+     * @param to    The opposite corner of the box.
+     * @return Query which matches all containers in the box.
+     */
+    public static ContainerQuery within(@NotNull World world, @NotNull Vector3i from, @NotNull Vector3i to) {
+        return new Within(world.getUniqueId(), from.min(to), from.max(to));
+    }
+
+    /**
+     * Creates a query which matches containers matched by all {@code queries}.
+     *
+     * @param queries Queries to match, at least one.
+     * @return Query which matches containers matched by all {@code queries}.
+     * @throws IllegalArgumentException If {@code queries} is empty.
+     */
+    public static ContainerQuery and(@NotNull ContainerQuery... queries) {
+        if (queries.length == 0)
+            throw new IllegalArgumentException("And query requires at least one query.");
+
+        return new And(Arrays.asList(queries.clone()));
+    }
+
+    /**
+     * Creates a query which matches containers matched by any of {@code queries}.
+     *
+     * @param queries Queries to match, at least one.
+     * @return Query which matches containers matched by any of {@code queries}.
+     * @throws IllegalArgumentException If {@code queries} is empty.
+     */
+    public static ContainerQuery or(@NotNull ContainerQuery... queries) {
+        if (queries.length == 0)
+            throw new IllegalArgumentException("Or query requires at least one query.");
+
+        return new Or(Arrays.asList(queries.clone()));
+    }
+
+    /**
+     * Creates a query which matches containers accepted by {@code predicate}. If {@code predicate}
+     * is already a {@link ContainerQuery}, it is returned as is.
+     *
+     * @param predicate Predicate to test containers.
+     * @return Query which matches containers accepted by {@code predicate}.
+     */
+    public static ContainerQuery matching(@NotNull Predicate<RemoteContainer> predicate) {
+        if (predicate instanceof ContainerQuery)
+            return (ContainerQuery) predicate;
+
+        return new Matching(predicate);
+    }
+
+    /**
+     * Matches containers by name.
+     */
+    public static final class Named extends ContainerQuery {
+
+        private final String name;
+
+        Named(String name) {
+            this.name = Objects.requireNonNull(name);
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        @Override
+        public boolean test(RemoteContainer remoteContainer) {
+            return remoteContainer.getName().filter(this.name::equals).isPresent();
+        }
+    }
+
+    /**
+     * Matches the container at a block position of a world.
+     */
+    public static final class At extends ContainerQuery {
+
+        private final UUID world;
+        private final int x;
+        private final int y;
+        private final int z;
+
+        At(UUID world, int x, int y, int z) {
+            this.world = world;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+        }
+
+        public UUID getWorld() {
+            return this.world;
+        }
+
+        public int getX() {
+            return this.x;
+        }
+
+        public int getY() {
+            return this.y;
+        }
+
+        public int getZ() {
+            return this.z;
+        }
+
+        @Override
+        public boolean test(RemoteContainer remoteContainer) {
+            return remoteContainer.getBlockX() == this.x
+                    && remoteContainer.getBlockY() == this.y
+                    && remoteContainer.getBlockZ() == this.z
+                    && remoteContainer.getWorldUniqueId().equals(this.world);
+        }
+    }
+
+    /**
+     * Matches all containers of a world.
+     */
+    public static final class InWorld extends ContainerQuery {
+
+        private final UUID world;
+
+        InWorld(UUID world) {
+            this.world = Objects.requireNonNull(world);
+        }
+
+        public UUID getWorld() {
+            return this.world;
+        }
+
+        @Override
+        public boolean test(RemoteContainer remoteContainer) {
+            return remoteContainer.getWorldUniqueId().equals(this.world);
+        }
+    }
+
+    /**
+     * Matches all containers in a box of a world, {@link #getMin() min} and {@link #getMax() max}
+     * are inclusive.
+     */
+    public static final class Within extends ContainerQuery {
+
+        private final UUID world;
+        private final Vector3i min;
+        private final Vector3i max;
+
+        Within(UUID world, Vector3i min, Vector3i max) {
+            this.world = Objects.requireNonNull(world);
+            this.min = min;
+            this.max = max;
+        }
+
+        public UUID getWorld() {
+            return this.world;
+        }
+
+        public Vector3i getMin() {
+            return this.min;
+        }
+
+        public Vector3i getMax() {
+            return this.max;
+        }
+
+        @Override
+        public boolean test(RemoteContainer remoteContainer) {
+            int x = remoteContainer.getBlockX();
+            int y = remoteContainer.getBlockY();
+            int z = remoteContainer.getBlockZ();
+
+            return x >= this.min.getX() && x <= this.max.getX()
+                    && y >= this.min.getY() && y <= this.max.getY()
+                    && z >= this.min.getZ() && z <= this.max.getZ()
+                    && remoteContainer.getWorldUniqueId().equals(this.world);
+        }
+    }
+
+    /**
+     * Matches containers matched by all {@link #getQueries() queries}.
+     */
+    public static final class And extends ContainerQuery {
+
+        private final List<ContainerQuery> queries;
+
+        And(List<ContainerQuery> queries) {
+            this.queries = Collections.unmodifiableList(queries);
+        }
+
+        public List<ContainerQuery> getQueries() {
+            return this.queries;
+        }
+
+        @Override
+        public boolean test(RemoteContainer remoteContainer) {
+            for (ContainerQuery query : this.queries) {
+                if (!query.test(remoteContainer))
+                    return false;
+            }
+
+            return true;
+        }
+    }
+
+    /**
+     * Matches containers matched by any of {@link #getQueries() queries}.
+     */
+    public static final class Or extends ContainerQuery {
+
+        private final List<ContainerQuery> queries;
+
+        Or(List<ContainerQuery> queries) {
+            this.queries = Collections.unmodifiableList(queries);
+        }
+
+        public List<ContainerQuery> getQueries() {
+            return this.queries;
+        }
+
+        @Override
+        public boolean test(RemoteContainer remoteContainer) {
+            for (ContainerQuery query : this.queries) {
+                if (query.test(remoteContainer))
+                    return true;
+            }
+
+            return false;
+        }
+    }
+
+    /**
+     * Matches containers accepted by an arbitrary {@link Predicate}.
+     */
+    public static final class Matching extends ContainerQuery {
+
+        private final Predicate<RemoteContainer> predicate;
+
+        Matching(Predicate<RemoteContainer> predicate) {
+            this.predicate = Objects.requireNonNull(predicate);
+        }
+
+        public Predicate<RemoteContainer> getPredicate() {
+            return this.predicate;
+        }
+
+        @Override
+        public boolean test(RemoteContainer remoteContainer) {
+            return this.predicate.test(remoteContainer);
+        }
+    }
+}
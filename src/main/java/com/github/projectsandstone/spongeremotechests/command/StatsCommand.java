@@ -0,0 +1,93 @@
+/**
+ *      SpongeRemoteChests - Access your containers remotely.
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2017 Sandstone <https://github.com/ProjectSandstone/SpongeRemoteChests/>
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.projectsandstone.spongeremotechests.command;
+
+import com.github.projectsandstone.spongeremotechests.Permissions;
+import com.github.projectsandstone.spongeremotechests.metrics.Metrics;
+import com.github.projectsandstone.spongeremotechests.util.InternPool;
+
+import org.jetbrains.annotations.Nullable;
+import org.spongepowered.api.command.CommandResult;
+import org.spongepowered.api.command.CommandSource;
+import org.spongepowered.api.command.args.CommandContext;
+import org.spongepowered.api.command.spec.CommandExecutor;
+import org.spongepowered.api.command.spec.CommandSpec;
+import org.spongepowered.api.text.Text;
+import org.spongepowered.api.text.format.TextColors;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shows metrics of container operations and statistics of {@link InternPool InternPools}.
+ */
+public final class StatsCommand implements CommandExecutor {
+
+    @Nullable
+    private final Metrics metrics;
+
+    /**
+     * @param metrics Metrics to show, or null if metrics are disabled.
+     */
+    public StatsCommand(@Nullable Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Creates the spec of the command.
+     *
+     * @param metrics Metrics to show, or null if metrics are disabled.
+     * @return Spec of the command.
+     */
+    public static CommandSpec spec(@Nullable Metrics metrics) {
+        return CommandSpec.builder()
+                .description(Text.of("Shows metrics of container operations."))
+                .permission(Permissions.STATS_PERMISSION)
+                .executor(new StatsCommand(metrics))
+                .build();
+    }
+
+    @Override
+    public CommandResult execute(CommandSource src, CommandContext args) {
+        List<String> lines;
+
+        if (this.metrics != null) {
+            lines = this.metrics.report();
+        } else {
+            src.sendMessage(Text.of(TextColors.YELLOW, "Metrics are disabled."));
+
+            lines = new ArrayList<>();
+            lines.add(InternPool.NAMES.toString());
+            lines.add(InternPool.WORLDS.toString());
+        }
+
+        lines.forEach(line -> src.sendMessage(Text.of(line)));
+
+        return CommandResult.success();
+    }
+}
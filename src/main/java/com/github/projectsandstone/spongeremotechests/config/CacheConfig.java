@@ -0,0 +1,70 @@
+/**
+ *      SpongeRemoteChests - Access your containers remotely.
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2017 Sandstone <https://github.com/ProjectSandstone/SpongeRemoteChests/>
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.projectsandstone.spongeremotechests.config;
+
+import ninja.leaping.configurate.objectmapping.Setting;
+import ninja.leaping.configurate.objectmapping.serialize.ConfigSerializable;
+
+@ConfigSerializable
+public class CacheConfig {
+
+    @Setting(value = Paths.ENABLED_PATH, comment = "Keep containers of recently used users in memory and serve reads without querying the database.")
+    private boolean enabled = true;
+
+    @Setting(value = Paths.MAX_USERS_PATH, comment = "Max number of users to keep in cache, least recently used users are evicted first.")
+    private long maxUsers = 1000;
+
+    @Setting(value = Paths.EXPIRE_AFTER_ACCESS_PATH, comment = "Seconds since last access before a user is evicted from cache, 0 to never expire.")
+    private long expireAfterAccess = 1800;
+
+    @Setting(value = Paths.RELEASE_DELAY_PATH, comment = "Containers of online users are loaded on join and kept in memory (beyond 'maxUsers') until this number of seconds after they leave.")
+    private long releaseDelay = 300;
+
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    public long getMaxUsers() {
+        return this.maxUsers;
+    }
+
+    public long getExpireAfterAccess() {
+        return this.expireAfterAccess;
+    }
+
+    public long getReleaseDelay() {
+        return this.releaseDelay;
+    }
+
+    private static final class Paths {
+        static final String ENABLED_PATH = "enabled";
+        static final String MAX_USERS_PATH = "maxUsers";
+        static final String EXPIRE_AFTER_ACCESS_PATH = "expireAfterAccess";
+        static final String RELEASE_DELAY_PATH = "releaseDelay";
+    }
+}
@@ -51,6 +51,21 @@ public final class Config {
     @Setting(value = Paths.DB_PATH, comment = "Database configuration.")
     private DatabaseConfig databaseConfig = new DatabaseConfig();
 
+    @Setting(value = Paths.SAVES_PATH, comment = "Configuration of saves when database is not used.")
+    private SavesConfig savesConfig = new SavesConfig();
+
+    @Setting(value = Paths.EXECUTOR_PATH, comment = "Configuration of threads which run backend operations.")
+    private ExecutorConfig executorConfig = new ExecutorConfig();
+
+    @Setting(value = Paths.OPEN_PATH, comment = "Configuration of remote opening of containers.")
+    private OpenConfig openConfig = new OpenConfig();
+
+    @Setting(value = Paths.VALIDATION_PATH, comment = "Configuration of detection of broken links.")
+    private ValidationConfig validationConfig = new ValidationConfig();
+
+    @Setting(value = Paths.METRICS_PATH, comment = "Configuration of metrics of container operations.")
+    private MetricsConfig metricsConfig = new MetricsConfig();
+
     @Setting(value = Paths.WAND_OPTIONS_PATH)
     private Linking linkingConfig = new Linking();
 
@@ -80,6 +95,26 @@ public final class Config {
         return this.databaseConfig;
     }
 
+    public SavesConfig getSavesConfig() {
+        return this.savesConfig;
+    }
+
+    public ExecutorConfig getExecutorConfig() {
+        return this.executorConfig;
+    }
+
+    public OpenConfig getOpenConfig() {
+        return this.openConfig;
+    }
+
+    public ValidationConfig getValidationConfig() {
+        return this.validationConfig;
+    }
+
+    public MetricsConfig getMetricsConfig() {
+        return this.metricsConfig;
+    }
+
     public Linking getLinkingConfig() {
         return this.linkingConfig;
     }
@@ -98,6 +133,11 @@ public final class Config {
         static final String OP_BYPASS_ECONOMY_PATH = "opBypassEconomy";
         static final String USE_DB_PATH = "useDB";
         static final String DB_PATH = "db";
+        static final String SAVES_PATH = "saves";
+        static final String EXECUTOR_PATH = "executor";
+        static final String OPEN_PATH = "open";
+        static final String VALIDATION_PATH = "validation";
+        static final String METRICS_PATH = "metrics";
         static final String WAND_OPTIONS_PATH = "linking";
         static final String MESSAGES_PATH = "messages";
         static final String RECIPES_PATH = "recipes";
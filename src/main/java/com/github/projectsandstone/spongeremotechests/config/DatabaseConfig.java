@@ -36,7 +36,21 @@ public class DatabaseConfig {
     @Setting(value = "url", comment = "Database url")
     private String url = "jdbc:h2:containers";
 
+    @Setting(value = "cache", comment = "Database cache configuration.")
+    private CacheConfig cacheConfig = new CacheConfig();
+
+    @Setting(value = "pool", comment = "Database connection pool configuration.")
+    private PoolConfig poolConfig = new PoolConfig();
+
     public String getUrl() {
         return this.url;
     }
+
+    public CacheConfig getCacheConfig() {
+        return this.cacheConfig;
+    }
+
+    public PoolConfig getPoolConfig() {
+        return this.poolConfig;
+    }
 }
@@ -0,0 +1,83 @@
+/**
+ *      SpongeRemoteChests - Access your containers remotely.
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2017 Sandstone <https://github.com/ProjectSandstone/SpongeRemoteChests/>
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.projectsandstone.spongeremotechests.config;
+
+import ninja.leaping.configurate.objectmapping.Setting;
+import ninja.leaping.configurate.objectmapping.serialize.ConfigSerializable;
+
+@ConfigSerializable
+public class ExecutorConfig {
+
+    @Setting(value = Paths.THREADS_PATH, comment = "Number of threads running backend operations (ignored when 'virtualThreads' is enabled and supported).")
+    private int threads = 4;
+
+    @Setting(value = Paths.QUEUE_CAPACITY_PATH, comment = "Max number of backend operations waiting to run. When 'virtualThreads' is enabled, max number of in-flight operations.")
+    private int queueCapacity = 1024;
+
+    @Setting(value = Paths.REJECTION_POLICY_PATH, comment = "What to do when the queue is full: ABORT fails the operation, CALLER_RUNS runs the operation in the calling thread (which is often the main thread, blocking the server while the operation runs).")
+    private RejectionPolicy rejectionPolicy = RejectionPolicy.ABORT;
+
+    @Setting(value = Paths.VIRTUAL_THREADS_PATH, comment = "Run each backend operation in a virtual thread (requires Java 21+, falls back to 'threads' otherwise).")
+    private boolean virtualThreads = false;
+
+    @Setting(value = Paths.SHUTDOWN_TIMEOUT_PATH, comment = "Seconds to wait for pending operations when the server stops.")
+    private long shutdownTimeout = 10;
+
+    public int getThreads() {
+        return this.threads;
+    }
+
+    public int getQueueCapacity() {
+        return this.queueCapacity;
+    }
+
+    public RejectionPolicy getRejectionPolicy() {
+        return this.rejectionPolicy;
+    }
+
+    public boolean isVirtualThreads() {
+        return this.virtualThreads;
+    }
+
+    public long getShutdownTimeout() {
+        return this.shutdownTimeout;
+    }
+
+    public enum RejectionPolicy {
+        ABORT,
+        CALLER_RUNS
+    }
+
+    private static final class Paths {
+        static final String THREADS_PATH = "threads";
+        static final String QUEUE_CAPACITY_PATH = "queueCapacity";
+        static final String REJECTION_POLICY_PATH = "rejectionPolicy";
+        static final String VIRTUAL_THREADS_PATH = "virtualThreads";
+        static final String SHUTDOWN_TIMEOUT_PATH = "shutdownTimeout";
+    }
+}
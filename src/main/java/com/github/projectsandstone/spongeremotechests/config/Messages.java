@@ -64,6 +64,11 @@ public class Messages {
             TextTemplate.arg("limit").color(TextColors.GREEN),
             " to remove all broken links.");
 
+    @Setting(Paths.LINKED_PATH)
+    private Text linked = Text.of(TextColors.GREEN, "Container linked!");
+
+    @Setting(Paths.LINK_FAILED_PATH)
+    private Text linkFailed = Text.of(TextColors.RED, "Failed to link container, try again later.");
 
     public TextTemplate getNotEnoughFunds() {
         return this.notEnoughFunds;
@@ -81,6 +86,14 @@ public class Messages {
         return this.limitExceeded;
     }
 
+    public Text getLinked() {
+        return this.linked;
+    }
+
+    public Text getLinkFailed() {
+        return this.linkFailed;
+    }
+
     public Text getNotEnoughFunds(int currentMoney) {
         return this.getNotEnoughFunds().apply(Collections.singletonMap("money", currentMoney)).build();
     }
@@ -94,6 +107,8 @@ public class Messages {
         static final String PROTECTED_CONTAINER_PATH = "protectedContainer";
         static final String BROKEN_LINK_PATH = "brokenLink";
         static final String LIMIT_EXCEEDED_PATH = "limitExceeded";
+        static final String LINKED_PATH = "linked";
+        static final String LINK_FAILED_PATH = "linkFailed";
     }
 
 }
@@ -0,0 +1,62 @@
+/**
+ *      SpongeRemoteChests - Access your containers remotely.
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2017 Sandstone <https://github.com/ProjectSandstone/SpongeRemoteChests/>
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.projectsandstone.spongeremotechests.config;
+
+import ninja.leaping.configurate.objectmapping.Setting;
+import ninja.leaping.configurate.objectmapping.serialize.ConfigSerializable;
+
+@ConfigSerializable
+public class MetricsConfig {
+
+    @Setting(value = Paths.ENABLED_PATH, comment = "Record counts and latencies of container operations, shown by '/rmc stats'.")
+    private boolean enabled = true;
+
+    @Setting(value = Paths.SLOW_THRESHOLD_PATH, comment = "Milliseconds an operation must take to be logged as slow, 0 to not log slow operations.")
+    private long slowThreshold = 50;
+
+    @Setting(value = Paths.WRITE_INTERVAL_PATH, comment = "Seconds between writes of metrics to 'metrics.txt', 0 to not write metrics.")
+    private long writeInterval = 60;
+
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    public long getSlowThreshold() {
+        return this.slowThreshold;
+    }
+
+    public long getWriteInterval() {
+        return this.writeInterval;
+    }
+
+    private static final class Paths {
+        static final String ENABLED_PATH = "enabled";
+        static final String SLOW_THRESHOLD_PATH = "slowThreshold";
+        static final String WRITE_INTERVAL_PATH = "writeInterval";
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ *      SpongeRemoteChests - Access your containers remotely.
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2017 Sandstone <https://github.com/ProjectSandstone/SpongeRemoteChests/>
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.projectsandstone.spongeremotechests.config;
+
+import ninja.leaping.configurate.objectmapping.Setting;
+import ninja.leaping.configurate.objectmapping.serialize.ConfigSerializable;
+
+@ConfigSerializable
+public class PoolConfig {
+
+    @Setting(value = Paths.SIZE_PATH, comment = "Max number of database connections held by the plugin. Should not exceed the pool size of the SqlService (10 by default).")
+    private int size = 4;
+
+    @Setting(value = Paths.CONNECTION_TIMEOUT_PATH, comment = "Milliseconds to wait for a free connection before failing the operation.")
+    private long connectionTimeout = 5000;
+
+    @Setting(value = Paths.MAX_LIFETIME_PATH, comment = "Seconds before a connection is closed and replaced by a new one.")
+    private long maxLifetime = 1800;
+
+    public int getSize() {
+        return this.size;
+    }
+
+    public long getConnectionTimeout() {
+        return this.connectionTimeout;
+    }
+
+    public long getMaxLifetime() {
+        return this.maxLifetime;
+    }
+
+    private static final class Paths {
+        static final String SIZE_PATH = "size";
+        static final String CONNECTION_TIMEOUT_PATH = "connectionTimeout";
+        static final String MAX_LIFETIME_PATH = "maxLifetime";
+    }
+}
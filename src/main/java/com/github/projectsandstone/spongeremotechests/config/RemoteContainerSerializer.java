@@ -32,41 +32,87 @@ import com.google.common.reflect.TypeToken;
 import com.github.projectsandstone.spongeremotechests.api.RemoteContainer;
 import com.github.projectsandstone.spongeremotechests.api.factory.RemoteContainerFactory;
 
-import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import org.spongepowered.api.world.Location;
-import org.spongepowered.api.world.World;
+
+import java.util.UUID;
 
 import ninja.leaping.configurate.ConfigurationNode;
 import ninja.leaping.configurate.objectmapping.ObjectMappingException;
 import ninja.leaping.configurate.objectmapping.serialize.TypeSerializer;
 
+/**
+ * Serializes {@link RemoteContainer RemoteContainers} as their name, world unique id and block
+ * position, so containers are read and written without resolving their world (which may not be
+ * loaded).
+ *
+ * Containers saved by previous versions under a {@code location} node are read from the world
+ * unique id and position of that node.
+ */
 public class RemoteContainerSerializer implements TypeSerializer<RemoteContainer> {
 
-    private static final TypeToken<Location<World>> WORLD_LOCATION_TOKEN = new TypeToken<Location<World>>() {};
+    private static final String NAME = "name";
+    private static final String WORLD = "world";
+    private static final String X = "x";
+    private static final String Y = "y";
+    private static final String Z = "z";
+
+    private static final String LEGACY_LOCATION = "location";
+    private static final String LEGACY_WORLD = "WorldUuid";
+    private static final String LEGACY_X = "X";
+    private static final String LEGACY_Y = "Y";
+    private static final String LEGACY_Z = "Z";
 
     @Override
     public RemoteContainer deserialize(TypeToken<?> type, ConfigurationNode value) throws ObjectMappingException {
 
         @Nullable String name = null;
-        @NotNull Location<World> location = value.getNode("location").getValue(WORLD_LOCATION_TOKEN);
 
-        ConfigurationNode nameNode = value.getNode("name");
+        ConfigurationNode nameNode = value.getNode(NAME);
 
         if(!nameNode.isVirtual())
             name = nameNode.getString();
 
+        ConfigurationNode legacyLocation = value.getNode(LEGACY_LOCATION);
+
+        if (value.getNode(WORLD).isVirtual() && !legacyLocation.isVirtual())
+            return RemoteContainerSerializer.read(name, legacyLocation, LEGACY_WORLD, LEGACY_X, LEGACY_Y, LEGACY_Z);
 
-        return RemoteContainerFactory.createChest(name, location);
+        return RemoteContainerSerializer.read(name, value, WORLD, X, Y, Z);
     }
 
     @Override
     public void serialize(TypeToken<?> type, RemoteContainer obj, ConfigurationNode value) throws ObjectMappingException {
 
-        if(obj.getName() != null) {
-            value.getNode("name").setValue(obj.getName());
+        if(obj.getName().isPresent()) {
+            value.getNode(NAME).setValue(obj.getName().get());
+        }
+
+        value.getNode(WORLD).setValue(obj.getWorldUniqueId().toString());
+        value.getNode(X).setValue(obj.getBlockX());
+        value.getNode(Y).setValue(obj.getBlockY());
+        value.getNode(Z).setValue(obj.getBlockZ());
+    }
+
+    private static RemoteContainer read(@Nullable String name, ConfigurationNode node,
+                                        String worldKey, String xKey, String yKey, String zKey) throws ObjectMappingException {
+        ConfigurationNode world = node.getNode(worldKey);
+        ConfigurationNode x = node.getNode(xKey);
+        ConfigurationNode y = node.getNode(yKey);
+        ConfigurationNode z = node.getNode(zKey);
+
+        if (world.isVirtual() || x.isVirtual() || y.isVirtual() || z.isVirtual())
+            throw new ObjectMappingException("Container at '" + node.getKey() + "' has no world or position.");
+
+        UUID worldUuid;
+
+        try {
+            worldUuid = UUID.fromString(world.getString());
+        } catch (IllegalArgumentException e) {
+            throw new ObjectMappingException("Invalid world unique id of container: " + world.getString(), e);
         }
 
-        value.getNode("location").setValue(WORLD_LOCATION_TOKEN, obj.getLocation());
+        // Legacy positions may be saved as doubles
+        return RemoteContainerFactory.createChest(name, worldUuid,
+                (int) Math.floor(x.getDouble()), (int) Math.floor(y.getDouble()), (int) Math.floor(z.getDouble()));
     }
 }
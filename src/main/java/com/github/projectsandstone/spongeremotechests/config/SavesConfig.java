@@ -0,0 +1,67 @@
+/**
+ *      SpongeRemoteChests - Access your containers remotely.
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2017 Sandstone <https://github.com/ProjectSandstone/SpongeRemoteChests/>
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.projectsandstone.spongeremotechests.config;
+
+import ninja.leaping.configurate.objectmapping.Setting;
+import ninja.leaping.configurate.objectmapping.serialize.ConfigSerializable;
+
+@ConfigSerializable
+public class SavesConfig {
+
+    @Setting(value = Paths.FORMAT_PATH, comment = "Format of saves when database is not used: CONFIG (one HOCON file per user in 'saves' directory) or BINARY (compact 'containers.bin' file). Existing saves are migrated to BINARY on first start.")
+    private Format format = Format.CONFIG;
+
+    @Setting(value = Paths.FLUSH_INTERVAL_PATH, comment = "Seconds between background saves of changed users, 0 to save only when the server stops.")
+    private long flushInterval = 30;
+
+    @Setting(value = Paths.JOURNAL_PATH, comment = "Append each change to a journal which is replayed on startup, so changes since last save survive a crash.")
+    private boolean journal = true;
+
+    public Format getFormat() {
+        return this.format;
+    }
+
+    public long getFlushInterval() {
+        return this.flushInterval;
+    }
+
+    public boolean isJournal() {
+        return this.journal;
+    }
+
+    public enum Format {
+        CONFIG,
+        BINARY
+    }
+
+    private static final class Paths {
+        static final String FORMAT_PATH = "format";
+        static final String FLUSH_INTERVAL_PATH = "flushInterval";
+        static final String JOURNAL_PATH = "journal";
+    }
+}
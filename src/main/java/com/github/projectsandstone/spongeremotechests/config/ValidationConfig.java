@@ -0,0 +1,77 @@
+/**
+ *      SpongeRemoteChests - Access your containers remotely.
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2017 Sandstone <https://github.com/ProjectSandstone/SpongeRemoteChests/>
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.projectsandstone.spongeremotechests.config;
+
+import ninja.leaping.configurate.objectmapping.Setting;
+import ninja.leaping.configurate.objectmapping.serialize.ConfigSerializable;
+
+@ConfigSerializable
+public class ValidationConfig {
+
+    @Setting(value = Paths.ON_CHUNK_LOAD_PATH, comment = "Check whether links still point to containers when their chunk is loaded: ENABLED, DISABLED, or AUTO to check only when links are not stored in a database (chunk loads are looked up in batches, but still query the database every tick while chunks load).")
+    private OnChunkLoad onChunkLoad = OnChunkLoad.AUTO;
+
+    @Setting(value = Paths.SWEEP_INTERVAL_PATH, comment = "Minutes between sweeps checking all links, loading their chunks if needed, 0 to disable sweeps.")
+    private long sweepInterval = 0;
+
+    @Setting(value = Paths.SWEEP_CHUNKS_PER_TICK_PATH, comment = "Max number of chunks checked (and loaded if needed) per tick by sweeps.")
+    private int sweepChunksPerTick = 1;
+
+    public OnChunkLoad getOnChunkLoad() {
+        return this.onChunkLoad;
+    }
+
+    /**
+     * Gets whether links are checked when their chunk is loaded.
+     *
+     * @param useDb Whether links are stored in a database.
+     */
+    public boolean isOnChunkLoad(boolean useDb) {
+        return this.onChunkLoad == OnChunkLoad.ENABLED || (this.onChunkLoad == OnChunkLoad.AUTO && !useDb);
+    }
+
+    public long getSweepInterval() {
+        return this.sweepInterval;
+    }
+
+    public int getSweepChunksPerTick() {
+        return this.sweepChunksPerTick;
+    }
+
+    public enum OnChunkLoad {
+        AUTO,
+        ENABLED,
+        DISABLED
+    }
+
+    private static final class Paths {
+        static final String ON_CHUNK_LOAD_PATH = "onChunkLoad";
+        static final String SWEEP_INTERVAL_PATH = "sweepInterval";
+        static final String SWEEP_CHUNKS_PER_TICK_PATH = "sweepChunksPerTick";
+    }
+}
@@ -27,29 +27,43 @@
  */
 package com.github.projectsandstone.spongeremotechests.listener;
 
+import com.github.projectsandstone.spongeremotechests.Permissions;
+import com.github.projectsandstone.spongeremotechests.api.RemoteContainer;
+import com.github.projectsandstone.spongeremotechests.api.Result;
+import com.github.projectsandstone.spongeremotechests.api.Results;
+import com.github.projectsandstone.spongeremotechests.api.factory.RemoteContainerFactory;
 import com.github.projectsandstone.spongeremotechests.api.manager.ContainerManager;
 import com.github.projectsandstone.spongeremotechests.config.Config;
-import com.github.projectsandstone.spongeremotechests.config.Recipes;
 
 import org.spongepowered.api.Game;
+import org.spongepowered.api.block.tileentity.carrier.TileEntityCarrier;
+import org.spongepowered.api.data.type.HandTypes;
 import org.spongepowered.api.entity.living.player.Player;
 import org.spongepowered.api.event.Listener;
+import org.spongepowered.api.event.Order;
 import org.spongepowered.api.event.block.InteractBlockEvent;
-import org.spongepowered.api.event.filter.cause.First;
+import org.spongepowered.api.event.filter.cause.Root;
 import org.spongepowered.api.event.service.ChangeServiceProviderEvent;
 import org.spongepowered.api.item.inventory.ItemStack;
+import org.spongepowered.api.world.Location;
+import org.spongepowered.api.world.World;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
 
 public final class RemoteChestsListener {
 
     private final Game game;
+    private final Config config;
+    private final Executor mainThread;
+    private final WandRecognizer wandRecognizer;
     private ContainerManager containerManager;
-    private Config config;
 
-    public RemoteChestsListener(Game game, Config config) {
+    public RemoteChestsListener(Object plugin, Game game, Config config) {
         this.game = game;
+        this.config = config;
+        this.mainThread = this.game.getScheduler().createSyncExecutor(plugin);
+        this.wandRecognizer = new WandRecognizer(config.getRecipes());
         this.containerManager = this.game.getServiceManager().provideUnchecked(ContainerManager.class);
     }
 
@@ -60,14 +74,77 @@ public final class RemoteChestsListener {
         }
     }
 
-    @Listener
-    public void rightClick(InteractBlockEvent.Secondary event, @First Player player) {
+    /**
+     * Links the container clicked with a 'Linking Wand'. Called for each right click of each
+     * player, so clicks without a wand return before anything is allocated other than the item in
+     * hand. Registration runs in backend threads and its result is handled in main thread.
+     */
+    @Listener(order = Order.LATE)
+    public void rightClick(InteractBlockEvent.Secondary.MainHand event, @Root Player player) {
+        Optional<ItemStack> inHand = player.getItemInHand(HandTypes.MAIN_HAND);
+
+        if (!inHand.isPresent() || !this.wandRecognizer.isWand(inHand.get()))
+            return;
+
+        Optional<Location<World>> target = event.getTargetBlock().getLocation();
+
+        if (!target.isPresent() || !target.get().getTileEntity().filter(TileEntityCarrier.class::isInstance).isPresent())
+            return;
+
+        if (!player.hasPermission(Permissions.LINK_PERMISSION))
+            return;
 
-        List<ItemStack> itemStackList = new ArrayList<>();
+        event.setCancelled(true);
 
-        player.getInventory().slots().forEach(inventories -> inventories.peek().ifPresent(itemStackList::add));
+        RemoteContainer remoteContainer = RemoteContainerFactory.createChest(target.get());
+        int limit = this.config.isOpBypassLimit() && player.hasPermission(Permissions.BYPASS_LIMIT_PERMISSION)
+                ? Integer.MAX_VALUE
+                : this.config.getLinkingConfig().getLimit();
 
+        this.containerManager.registerUserContainer(player, remoteContainer, limit)
+                .thenAcceptAsync(result -> this.linked(player, result, limit), this.mainThread)
+                .exceptionally(t -> {
+                    this.mainThread.execute(() -> this.linkFailed(player));
+                    return null;
+                });
     }
 
+    private void linkFailed(Player player) {
+        if (player.isOnline())
+            player.sendMessage(this.config.getMessagesConfig().getLinkFailed());
+    }
+
+    private void linked(Player player, Result result, int limit) {
+        if (!player.isOnline())
+            return;
+
+        if (result == Results.LIMIT) {
+            player.sendMessage(this.config.getMessagesConfig().getLimitExceeded(limit));
+            return;
+        }
+
+        if (result != Results.SUCCESS)
+            return;
+
+        player.sendMessage(this.config.getMessagesConfig().getLinked());
+
+        if (!this.config.getLinkingConfig().isConsumeLinkingWand())
+            return;
+
+        Optional<ItemStack> inHand = player.getItemInHand(HandTypes.MAIN_HAND);
+
+        // Wand may have been moved while registering
+        if (!inHand.isPresent() || !this.wandRecognizer.isWand(inHand.get()))
+            return;
+
+        ItemStack wand = inHand.get();
+
+        if (wand.getQuantity() > 1) {
+            wand.setQuantity(wand.getQuantity() - 1);
+            player.setItemInHand(HandTypes.MAIN_HAND, wand);
+        } else {
+            player.setItemInHand(HandTypes.MAIN_HAND, null);
+        }
+    }
 
 }
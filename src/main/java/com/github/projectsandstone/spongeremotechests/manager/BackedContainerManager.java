@@ -27,30 +27,96 @@
  */
 package com.github.projectsandstone.spongeremotechests.manager;
 
+import com.flowpowered.math.vector.Vector3i;
+
+import com.github.projectsandstone.spongeremotechests.api.OwnedContainer;
 import com.github.projectsandstone.spongeremotechests.api.RemoteContainer;
+import com.github.projectsandstone.spongeremotechests.api.Result;
 import com.github.projectsandstone.spongeremotechests.api.manager.ContainerManager;
+import com.github.projectsandstone.spongeremotechests.api.query.ContainerQuery;
+import com.github.projectsandstone.spongeremotechests.util.UserResolver;
 
 import org.jetbrains.annotations.NotNull;
+import org.spongepowered.api.Sponge;
+import org.spongepowered.api.entity.living.player.Player;
 import org.spongepowered.api.entity.living.player.User;
-
-import java.util.Collections;
-import java.util.HashSet;
+import org.spongepowered.api.event.Listener;
+import org.spongepowered.api.event.filter.cause.Root;
+import org.spongepowered.api.event.network.ClientConnectionEvent;
+import org.spongepowered.api.scheduler.Task;
+import org.spongepowered.api.world.Location;
+import org.spongepowered.api.world.World;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
 /**
  * Implements a basic logic for container managers and back calls to {@link #backend}.
+ *
+ * Containers of players are pinned in {@link #backend} when they join and unpinned some time after
+ * they leave (see {@link Backend#pin(UUID)}), so it must be registered as listener.
  */
 public final class BackedContainerManager implements ContainerManager {
 
+    private final Object plugin;
     private final Backend backend;
-
-    public BackedContainerManager(Backend backend) {
+    private final long releaseDelay;
+    private final UserResolver userResolver = new UserResolver();
+
+    /**
+     * Pending unpins of players which left, accessed only in main thread.
+     */
+    private final Map<UUID, Task> releases = new HashMap<>();
+
+    /**
+     * @param plugin       Plugin to schedule unpins.
+     * @param backend      Backend.
+     * @param releaseDelay Seconds since a player leaves until its containers are unpinned.
+     */
+    public BackedContainerManager(Object plugin, Backend backend, long releaseDelay) {
+        this.plugin = plugin;
         this.backend = backend;
+        this.releaseDelay = releaseDelay;
+    }
+
+    @Listener
+    public void join(ClientConnectionEvent.Join event, @Root Player player) {
+        UUID uuid = player.getUniqueId();
+        Task release = this.releases.remove(uuid);
+
+        if (release != null)
+            release.cancel();
+
+        this.backend.pin(uuid);
+    }
+
+    @Listener
+    public void disconnect(ClientConnectionEvent.Disconnect event, @Root Player player) {
+        UUID uuid = player.getUniqueId();
+        Task release = Sponge.getScheduler().createTaskBuilder()
+                .delay(this.releaseDelay, TimeUnit.SECONDS)
+                .name("SpongeRemoteChests - Release containers of " + uuid)
+                .execute(() -> {
+                    this.releases.remove(uuid);
+                    this.backend.unpin(uuid);
+                })
+                .submit(this.plugin);
+
+        Task previous = this.releases.put(uuid, release);
+
+        if (previous != null)
+            previous.cancel();
     }
 
     @Override
@@ -58,68 +124,125 @@ public final class BackedContainerManager implements ContainerManager {
         return this.register(user, remoteContainer);
     }
 
+    @Override
+    public CompletableFuture<Result> registerUserContainer(@NotNull User user, @NotNull RemoteContainer remoteContainer, int limit) {
+        return this.backend.register(user.getUniqueId(), remoteContainer, limit);
+    }
+
+    @Override
+    public CompletableFuture<Integer> countUserContainers(@NotNull User user) {
+        return this.backend.countContainers(user.getUniqueId());
+    }
+
+    @Override
+    public CompletableFuture<Map<User, Map<RemoteContainer, Boolean>>> registerUserContainers(@NotNull Map<User, ? extends Collection<RemoteContainer>> containers) {
+        Map<UUID, Collection<RemoteContainer>> byOwner = new LinkedHashMap<>();
+        Map<UUID, User> owners = new HashMap<>();
+
+        containers.forEach((user, remoteContainers) -> {
+            byOwner.computeIfAbsent(user.getUniqueId(), uuid -> new ArrayList<>()).addAll(remoteContainers);
+            owners.put(user.getUniqueId(), user);
+        });
+
+        return this.backend.registerAll(byOwner).thenApply(results -> {
+            Map<User, Map<RemoteContainer, Boolean>> userResults = new LinkedHashMap<>();
+
+            results.forEach((owner, ownerResults) -> userResults.put(owners.get(owner), ownerResults));
+
+            return userResults;
+        });
+    }
+
     @Override
     public CompletableFuture<Boolean> unregisterUserContainer(@NotNull User user, @NotNull Predicate<RemoteContainer> predicate) {
         return this.unregister(user, predicate);
     }
 
+    @Override
+    public CompletableFuture<Boolean> unregisterContainers(@NotNull ContainerQuery query) {
+        return this.backend.unregisterAll(query);
+    }
+
     @Override
     public @NotNull CompletableFuture<Optional<RemoteContainer>> getUserContainer(@NotNull User user, @NotNull Predicate<RemoteContainer> predicate) {
+        return this.backend.getContainers(user.getUniqueId(), ContainerQuery.matching(predicate))
+                .thenApply(remoteContainers -> remoteContainers.stream().findFirst());
+    }
 
-        return this.backend.hasAnyContainer(user)
-                .thenCompose(aBoolean -> {
-                    if (aBoolean == Boolean.FALSE)
-                        return CompletableFuture.completedFuture(Optional.<RemoteContainer>empty());
-                    else {
-                        return this.backend.getAllContainers(user)
-                                .thenApply(remoteContainers -> remoteContainers.stream().filter(predicate).findFirst());
-                    }
-                });
+    @Override
+    public @NotNull CompletableFuture<Optional<RemoteContainer>> getUserContainer(@NotNull User user, @NotNull String name) {
+        return this.backend.getContainer(user.getUniqueId(), name);
     }
 
     @Override
     public @NotNull CompletableFuture<Set<RemoteContainer>> getUserContainers(@NotNull User user, @NotNull Predicate<RemoteContainer> predicate) {
-
-        return this.backend.hasAnyContainer(user)
-                .thenCompose(aBoolean -> {
-                    if (aBoolean == Boolean.FALSE)
-                        return CompletableFuture.completedFuture(Collections.emptySet());
-                    else
-                        return this.backend.getAllContainers(user)
-                                .thenApply(remoteContainers -> remoteContainers.stream().filter(predicate).collect(Collectors.toSet()));
-                });
-
+        return this.backend.getContainers(user.getUniqueId(), ContainerQuery.matching(predicate));
     }
 
     @Override
     public CompletableFuture<Boolean> isOwner(@NotNull User user, @NotNull RemoteContainer container) {
 
-        return this.backend.isOwner(user, container);
+        return this.backend.isOwner(user.getUniqueId(), container);
     }
 
     @Override
     public @NotNull CompletableFuture<Set<RemoteContainer>> getUserContainers(@NotNull User user) {
-        return this.backend.hasAnyContainer(user)
-                .thenCompose(aBoolean -> {
-                    if (aBoolean == Boolean.FALSE)
-                        return CompletableFuture.completedFuture(Collections.emptySet());
-                    else
-                        return this.backend.getAllContainers(user);
-                });
-
+        return this.backend.getAllContainers(user.getUniqueId());
     }
 
+    @Deprecated
     @Override
     public @NotNull CompletableFuture<Map<User, Set<RemoteContainer>>> getAllContainers() {
+        return this.backend.getAllContainers().thenApply(this::byUser);
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Map<UUID, Set<RemoteContainer>>> getAllContainersByUniqueId() {
         return this.backend.getAllContainers();
     }
 
+    @Override
+    public @NotNull CompletableFuture<Void> forEachContainer(int batchSize, @NotNull Consumer<List<OwnedContainer>> consumer) {
+        return this.backend.forEachContainer(batchSize, consumer);
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Map<UUID, RemoteContainer>> getLinksAt(@NotNull Location<World> location) {
+        return this.backend.getLinksAt(location);
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Map<UUID, Set<RemoteContainer>>> getLinksInChunk(@NotNull World world, int chunkX, int chunkZ) {
+        return this.backend.getLinksInChunk(world, chunkX, chunkZ);
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Map<UUID, Set<RemoteContainer>>> getLinksInChunks(@NotNull World world, @NotNull Collection<Vector3i> chunks) {
+        return this.backend.getLinksInChunks(world, chunks);
+    }
+
+    @Override
+    public @NotNull Optional<User> resolveOwner(@NotNull UUID owner) {
+        return this.userResolver.resolve(owner);
+    }
+
+    /**
+     * Resolves owners of {@code byOwner}, values of owners which cannot be resolved are left out.
+     */
+    private <V> Map<User, V> byUser(Map<UUID, V> byOwner) {
+        Map<User, V> byUser = new HashMap<>();
+
+        byOwner.forEach((owner, value) -> this.userResolver.resolve(owner).ifPresent(user -> byUser.put(user, value)));
+
+        return byUser;
+    }
+
     private CompletableFuture<Boolean> register(User user, RemoteContainer remoteContainer) {
-        return this.backend.register(user, remoteContainer);
+        return this.backend.register(user.getUniqueId(), remoteContainer);
     }
 
     private CompletableFuture<Boolean> unregister(User user, Predicate<RemoteContainer> predicate) {
-        return this.backend.unregister(user, predicate);
+        return this.backend.unregister(user.getUniqueId(), ContainerQuery.matching(predicate));
     }
 
 }
@@ -27,49 +27,115 @@
  */
 package com.github.projectsandstone.spongeremotechests.manager;
 
+import com.flowpowered.math.vector.Vector3i;
+
+import com.github.projectsandstone.spongeremotechests.api.OwnedContainer;
 import com.github.projectsandstone.spongeremotechests.api.RemoteContainer;
+import com.github.projectsandstone.spongeremotechests.api.Result;
+import com.github.projectsandstone.spongeremotechests.api.Results;
+import com.github.projectsandstone.spongeremotechests.api.query.ContainerQuery;
 
 import org.jetbrains.annotations.NotNull;
-import org.spongepowered.api.entity.living.player.User;
+import org.spongepowered.api.world.Location;
+import org.spongepowered.api.world.World;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 public abstract class Backend {
 
     /**
-     * Returns a {@link CompletableFuture} of a boolean that indicates if user has any {@link
+     * Returns a {@link CompletableFuture} of a boolean that indicates if {@code owner} has any {@link
      * RemoteContainer} or not.
      *
-     * @param user User to get containers
-     * @return {@link CompletableFuture} of a boolean that indicates if user has any {@link
+     * @param owner Unique id of owner.
+     * @return {@link CompletableFuture} of a boolean that indicates if {@code owner} has any {@link
      * RemoteContainer} or not.
      */
     @NotNull
-    public abstract CompletableFuture<Boolean> hasAnyContainer(@NotNull User user);
+    public abstract CompletableFuture<Boolean> hasAnyContainer(@NotNull UUID owner);
+
+    /**
+     * Returns a {@link CompletableFuture} of the number of containers of {@code owner}.
+     *
+     * Default implementation loads all containers of {@code owner}, backends should count without
+     * loading containers.
+     *
+     * @param owner Unique id of owner.
+     * @return {@link CompletableFuture} of the number of containers of {@code owner}.
+     */
+    @NotNull
+    public CompletableFuture<Integer> countContainers(@NotNull UUID owner) {
+        return this.getAllContainers(owner).thenApply(Set::size);
+    }
 
     /**
-     * Returns a {@link CompletableFuture} of immutable set of all containers of {@code user}.
+     * Returns a {@link CompletableFuture} of immutable set of all containers of {@code owner}.
+     *
+     * @param owner Unique id of owner.
+     * @return {@link CompletableFuture} of immutable set of all containers of {@code owner}.
+     */
+    @NotNull
+    public abstract CompletableFuture<Set<RemoteContainer>> getAllContainers(@NotNull UUID owner);
+
+    /**
+     * Returns a {@link CompletableFuture} of immutable set of all containers of {@code owner} which
+     * matches {@code query}.
+     *
+     * Default implementation tests each container of {@link #getAllContainers(UUID)}, backends
+     * should evaluate typed queries natively when possible.
      *
-     * @param user User to check.
-     * @return {@link CompletableFuture} of immutable set of all containers of {@code user}.
+     * @param owner Unique id of owner.
+     * @param query Query to filter containers.
+     * @return {@link CompletableFuture} of immutable set of all containers of {@code owner} which
+     * matches {@code query}.
      */
     @NotNull
-    public abstract CompletableFuture<Set<RemoteContainer>> getAllContainers(@NotNull User user);
+    public CompletableFuture<Set<RemoteContainer>> getContainers(@NotNull UUID owner, @NotNull ContainerQuery query) {
+        return this.getAllContainers(owner)
+                .thenApply(remoteContainers -> remoteContainers.stream().filter(query).collect(Collectors.toSet()));
+    }
 
     /**
-     * Returns a {@link CompletableFuture} of a boolean that indicates if {@code user} is owner of
+     * Returns a {@link CompletableFuture} of a container of {@code owner} named {@code name}.
+     *
+     * Default implementation queries {@link ContainerQuery#named(String)}, backends should look up
+     * names in an index.
+     *
+     * @param owner Unique id of owner.
+     * @param name  Name of container.
+     * @return {@link CompletableFuture} of a container of {@code owner} named {@code name}, or
+     * {@link Optional#empty()} if {@code owner} has no container with this name.
+     */
+    @NotNull
+    public CompletableFuture<Optional<RemoteContainer>> getContainer(@NotNull UUID owner, @NotNull String name) {
+        return this.getContainers(owner, ContainerQuery.named(name))
+                .thenApply(remoteContainers -> remoteContainers.stream().findFirst());
+    }
+
+    /**
+     * Returns a {@link CompletableFuture} of a boolean that indicates if {@code owner} is owner of
      * {@code container}.
      *
-     * @param user      User to check.
-     * @param container Container to check whether {@code user} is owner or not.
-     * @return {@link CompletableFuture} of a boolean that indicates if {@code user} is owner of
+     * @param owner     Unique id of user to check.
+     * @param container Container to check whether {@code owner} is owner or not.
+     * @return {@link CompletableFuture} of a boolean that indicates if {@code owner} is owner of
      * {@code container}.
      */
     @NotNull
-    public abstract CompletableFuture<Boolean> isOwner(@NotNull User user, @NotNull RemoteContainer container);
+    public abstract CompletableFuture<Boolean> isOwner(@NotNull UUID owner, @NotNull RemoteContainer container);
 
     /**
      * Returns a {@link CompletableFuture} of a view map of all registered containers.
@@ -77,30 +143,248 @@ public abstract class Backend {
      * @return {@link CompletableFuture} of a view map of all registered containers.
      */
     @NotNull
-    public abstract CompletableFuture<Map<User, Set<RemoteContainer>>> getAllContainers();
+    public abstract CompletableFuture<Map<UUID, Set<RemoteContainer>>> getAllContainers();
 
     /**
-     * Registers the {@code remoteContainer} for {@code user}.
+     * Reads all registered containers in pages of at most {@code batchSize} containers and passes
+     * each page to {@code consumer}, in order. Pages are passed one at a time, so containers are
+     * never held in memory all at once (unlike {@link #getAllContainers()}).
      *
-     * @param user            Owner of container.
+     * Default implementation pages over {@link #getAllContainers()}, backends which do not keep
+     * all containers in memory should read pages lazily.
+     *
+     * @param batchSize Max number of containers of each page.
+     * @param consumer  Consumer of pages, may be called in any thread, but never concurrently.
+     * @return {@link CompletableFuture} which completes after last page is consumed, or
+     * exceptionally if reading or consuming a page fails.
+     */
+    @NotNull
+    public CompletableFuture<Void> forEachContainer(int batchSize, @NotNull Consumer<List<OwnedContainer>> consumer) {
+        if (batchSize <= 0)
+            throw new IllegalArgumentException("Batch size must be positive.");
+
+        return this.getAllContainers().thenAccept(all -> {
+            List<OwnedContainer> page = new ArrayList<>(batchSize);
+
+            for (Map.Entry<UUID, Set<RemoteContainer>> entry : all.entrySet()) {
+                for (RemoteContainer remoteContainer : entry.getValue()) {
+                    page.add(new OwnedContainer(entry.getKey(), remoteContainer));
+
+                    if (page.size() == batchSize) {
+                        consumer.accept(page);
+                        page = new ArrayList<>(batchSize);
+                    }
+                }
+            }
+
+            if (!page.isEmpty())
+                consumer.accept(page);
+        });
+    }
+
+    /**
+     * Returns a {@link CompletableFuture} of a map of unique ids of all users linked to the container at {@code
+     * location} and their links.
+     *
+     * @param location Location of container.
+     * @return {@link CompletableFuture} of a map of unique ids of all users linked to the container at {@code
+     * location} and their links.
+     */
+    @NotNull
+    public abstract CompletableFuture<Map<UUID, RemoteContainer>> getLinksAt(@NotNull Location<World> location);
+
+    /**
+     * Returns a {@link CompletableFuture} of a map of unique ids of all users linked to containers in chunk
+     * {@code chunkX}, {@code chunkZ} of {@code world} and their links in this chunk.
+     *
+     * @param world  World of the chunk.
+     * @param chunkX Chunk x.
+     * @param chunkZ Chunk z.
+     * @return {@link CompletableFuture} of a map of unique ids of all users linked to containers in the chunk and
+     * their links in this chunk.
+     */
+    @NotNull
+    public abstract CompletableFuture<Map<UUID, Set<RemoteContainer>>> getLinksInChunk(@NotNull World world, int chunkX, int chunkZ);
+
+    /**
+     * Returns a {@link CompletableFuture} of a map of unique ids of all users linked to containers in
+     * {@code chunks} of {@code world} and their links in these chunks.
+     *
+     * Default implementation looks up each chunk with {@link #getLinksInChunk(World, int, int)},
+     * backends should look up all chunks at once.
+     *
+     * @param world  World of the chunks.
+     * @param chunks Positions of the chunks, y is ignored.
+     * @return {@link CompletableFuture} of a map of unique ids of all users linked to containers in the
+     * chunks and their links in these chunks.
+     */
+    @NotNull
+    public CompletableFuture<Map<UUID, Set<RemoteContainer>>> getLinksInChunks(@NotNull World world, @NotNull Collection<Vector3i> chunks) {
+        CompletableFuture<Map<UUID, Set<RemoteContainer>>> future = CompletableFuture.completedFuture(new HashMap<>());
+
+        for (Vector3i chunk : chunks) {
+            CompletableFuture<Map<UUID, Set<RemoteContainer>>> links = this.getLinksInChunk(world, chunk.getX(), chunk.getZ());
+
+            future = future.thenCombine(links, (all, chunkLinks) -> {
+                chunkLinks.forEach((owner, remoteContainers) -> all.computeIfAbsent(owner, uuid -> new HashSet<>()).addAll(remoteContainers));
+                return all;
+            });
+        }
+
+        return future;
+    }
+
+    /**
+     * Registers the {@code remoteContainer} for {@code owner}.
+     *
+     * @param owner           Unique id of owner of container.
      * @param remoteContainer Container to link.
      * @return A {@link CompletableFuture} of a boolean that indicates if this container was
      * registered successfully. Normally, this boolean is only {@link Boolean#FALSE} if the
      * container is already registered.
      */
     @NotNull
-    public abstract CompletableFuture<Boolean> register(@NotNull User user, @NotNull RemoteContainer remoteContainer);
+    public abstract CompletableFuture<Boolean> register(@NotNull UUID owner, @NotNull RemoteContainer remoteContainer);
+
+    /**
+     * Registers the {@code remoteContainer} for {@code owner} if {@code owner} has less than {@code
+     * limit} containers. Counting and registering is atomic, so concurrent registrations for {@code
+     * owner} cannot exceed {@code limit}.
+     *
+     * @param owner           Unique id of owner of container.
+     * @param remoteContainer Container to link.
+     * @param limit           Maximum number of containers of {@code owner}.
+     * @return A {@link CompletableFuture} of {@link Results#SUCCESS} if the container was
+     * registered, {@link Results#LIMIT} if {@code owner} already has {@code limit} containers, or
+     * {@link Results#FAILED} if the container is already registered or registration failed.
+     */
+    @NotNull
+    public abstract CompletableFuture<Result> register(@NotNull UUID owner, @NotNull RemoteContainer remoteContainer, int limit);
 
     /**
-     * Unregisters all {@code user} {@link RemoteContainer RemoteContainers} which matches {@code
+     * Registers all {@code containers} of each user. Duplicated containers of a user are registered
+     * only once.
+     *
+     * Default implementation calls {@link #register(UUID, RemoteContainer)} for each container.
+     *
+     * @param containers Containers to link mapped by owner.
+     * @return A {@link CompletableFuture} of the result of registration of each distinct container
+     * of each user (see {@link #register(UUID, RemoteContainer)}).
+     */
+    @NotNull
+    public CompletableFuture<Map<UUID, Map<RemoteContainer, Boolean>>> registerAll(@NotNull Map<UUID, ? extends Collection<RemoteContainer>> containers) {
+        Map<UUID, Map<RemoteContainer, CompletableFuture<Boolean>>> futures = new LinkedHashMap<>();
+
+        containers.forEach((owner, remoteContainers) -> {
+            Map<RemoteContainer, CompletableFuture<Boolean>> userFutures = futures.computeIfAbsent(owner, uuid -> new LinkedHashMap<>());
+
+            for (RemoteContainer remoteContainer : remoteContainers) {
+                if (!userFutures.containsKey(remoteContainer))
+                    userFutures.put(remoteContainer, this.register(owner, remoteContainer));
+            }
+        });
+
+        CompletableFuture<?>[] all = futures.values().stream()
+                .flatMap(userFutures -> userFutures.values().stream())
+                .toArray(CompletableFuture[]::new);
+
+        return CompletableFuture.allOf(all).thenApply(v -> {
+            Map<UUID, Map<RemoteContainer, Boolean>> results = new LinkedHashMap<>();
+
+            futures.forEach((owner, userFutures) -> {
+                Map<RemoteContainer, Boolean> userResults = new LinkedHashMap<>();
+                userFutures.forEach((remoteContainer, future) -> userResults.put(remoteContainer, future.join()));
+                results.put(owner, userResults);
+            });
+
+            return results;
+        });
+    }
+
+    /**
+     * Unregisters all {@code owner} {@link RemoteContainer RemoteContainers} which matches {@code
      * predicate}.
      *
-     * @param user      User to unregister
+     * Same as {@link #unregister(UUID, ContainerQuery)} with {@link
+     * ContainerQuery#matching(Predicate)}, prefer typed queries which backends can evaluate
+     * natively.
+     *
+     * @param owner     Unique id of owner.
      * @param predicate Predicate to test which {@link RemoteContainer RemoteContainers} to
      *                  unregister.
      * @return {@link CompletableFuture} of a boolean that indicates if any {@link RemoteContainer}
      * was removed as result of this action.
      */
     @NotNull
-    public abstract CompletableFuture<Boolean> unregister(@NotNull User user, @NotNull Predicate<RemoteContainer> predicate);
+    public final CompletableFuture<Boolean> unregister(@NotNull UUID owner, @NotNull Predicate<RemoteContainer> predicate) {
+        return this.unregister(owner, ContainerQuery.matching(predicate));
+    }
+
+    /**
+     * Unregisters all {@code owner} {@link RemoteContainer RemoteContainers} which matches {@code
+     * query}.
+     *
+     * @param owner Unique id of owner.
+     * @param query Query to match which {@link RemoteContainer RemoteContainers} to unregister.
+     * @return {@link CompletableFuture} of a boolean that indicates if any {@link RemoteContainer}
+     * was removed as result of this action.
+     */
+    @NotNull
+    public abstract CompletableFuture<Boolean> unregister(@NotNull UUID owner, @NotNull ContainerQuery query);
+
+    /**
+     * Unregisters {@link RemoteContainer RemoteContainers} of all users which matches {@code
+     * query}.
+     *
+     * Default implementation calls {@link #unregister(UUID, ContainerQuery)} for each owner of
+     * {@link #getAllContainers()}.
+     *
+     * @param query Query to match which {@link RemoteContainer RemoteContainers} to unregister.
+     * @return {@link CompletableFuture} of a boolean that indicates if any {@link RemoteContainer}
+     * was removed as result of this action.
+     */
+    @NotNull
+    public CompletableFuture<Boolean> unregisterAll(@NotNull ContainerQuery query) {
+        return this.getAllContainers().thenCompose(all -> {
+            List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+
+            all.forEach((owner, remoteContainers) -> {
+                if (remoteContainers.stream().anyMatch(query))
+                    futures.add(this.unregister(owner, query));
+            });
+
+            return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                    .thenApply(v -> futures.stream().anyMatch(CompletableFuture::join));
+        });
+    }
+
+    /**
+     * Keeps containers of {@code owner} in memory until {@link #unpin(UUID)} is called, so reads
+     * of containers of {@code owner} do not wait for storage.
+     *
+     * Default implementation does nothing, for backends which keep all containers in memory.
+     *
+     * @param owner Owner of containers.
+     * @return {@link CompletableFuture} completed when containers of {@code owner} are in memory.
+     */
+    @NotNull
+    public CompletableFuture<Void> pin(@NotNull UUID owner) {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Stops keeping containers of {@code owner} in memory, undoing {@link #pin(UUID)}.
+     *
+     * Default implementation does nothing.
+     *
+     * @param owner Owner of containers.
+     */
+    public void unpin(@NotNull UUID owner) {
+    }
+
+    /**
+     * Releases resources held by this backend. The backend must not be used after this call.
+     */
+    public void close() {
+    }
 }
@@ -0,0 +1,158 @@
+/**
+ *      SpongeRemoteChests - Access your containers remotely.
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2017 Sandstone <https://github.com/ProjectSandstone/SpongeRemoteChests/>
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.projectsandstone.spongeremotechests.manager;
+
+import com.github.projectsandstone.spongeremotechests.config.ExecutorConfig;
+import com.github.projectsandstone.spongeremotechests.config.ExecutorConfig.RejectionPolicy;
+import com.github.projectsandstone.spongeremotechests.util.BoundedExecutorService;
+
+import org.slf4j.Logger;
+
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Creates and shuts down the {@link ExecutorService} which runs blocking {@link Backend}
+ * operations, so they never run in the {@link java.util.concurrent.ForkJoinPool#commonPool()
+ * common pool}.
+ */
+public final class BackendExecutors {
+
+    private BackendExecutors() {
+    }
+
+    public static ExecutorService create(ExecutorConfig executorConfig, Logger logger) {
+        boolean callerRuns = executorConfig.getRejectionPolicy() == RejectionPolicy.CALLER_RUNS;
+
+        if (executorConfig.isVirtualThreads()) {
+            Optional<ExecutorService> virtual = BackendExecutors.newVirtualThreadPerTaskExecutor();
+
+            if (virtual.isPresent())
+                return new BoundedExecutorService(virtual.get(), executorConfig.getQueueCapacity(), callerRuns);
+
+            logger.warn("Virtual threads are not supported by this JVM, using a pool of " + executorConfig.getThreads() + " threads.");
+        }
+
+        int threads = Math.max(1, executorConfig.getThreads());
+
+        RejectedExecutionHandler handler = callerRuns
+                ? BackendExecutors::callerRuns
+                : new ThreadPoolExecutor.AbortPolicy();
+
+        return new ThreadPoolExecutor(threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, executorConfig.getQueueCapacity())),
+                new BackendThreadFactory(),
+                handler);
+    }
+
+    /**
+     * Stops accepting new operations and waits up to {@link ExecutorConfig#getShutdownTimeout()}
+     * seconds for pending operations.
+     */
+    public static void shutdown(ExecutorService executor, ExecutorConfig executorConfig, Logger logger) {
+        executor.shutdown();
+
+        try {
+            if (!executor.awaitTermination(executorConfig.getShutdownTimeout(), TimeUnit.SECONDS)) {
+                logger.warn("Backend operations did not finish in " + executorConfig.getShutdownTimeout() + " seconds, cancelling them.");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Like {@link CompletableFuture#supplyAsync(Supplier, Executor)}, but an operation rejected by
+     * {@code executor} completes the returned future exceptionally instead of throwing.
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier, Executor executor) {
+        try {
+            return CompletableFuture.supplyAsync(supplier, executor);
+        } catch (RejectedExecutionException e) {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+
+    /**
+     * Like {@link CompletableFuture#runAsync(Runnable, Executor)}, but an operation rejected by
+     * {@code executor} completes the returned future exceptionally instead of throwing.
+     */
+    public static CompletableFuture<Void> runAsync(Runnable runnable, Executor executor) {
+        return BackendExecutors.supplyAsync(() -> {
+            runnable.run();
+            return null;
+        }, executor);
+    }
+
+    /**
+     * Runs {@code r} in the caller thread. Unlike {@link ThreadPoolExecutor.CallerRunsPolicy}, an
+     * operation submitted after shutdown is rejected instead of silently dropped.
+     */
+    private static void callerRuns(Runnable r, ThreadPoolExecutor executor) {
+        if (executor.isShutdown())
+            throw new RejectedExecutionException("Backend executor is shut down.");
+
+        r.run();
+    }
+
+    private static Optional<ExecutorService> newVirtualThreadPerTaskExecutor() {
+        try {
+            return Optional.of((ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null));
+        } catch (ReflectiveOperationException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static final class BackendThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "SpongeRemoteChests-Backend-" + this.count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
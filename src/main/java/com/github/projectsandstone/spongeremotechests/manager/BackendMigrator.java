@@ -0,0 +1,76 @@
+/**
+ *      SpongeRemoteChests - Access your containers remotely.
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2017 Sandstone <https://github.com/ProjectSandstone/SpongeRemoteChests/>
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.projectsandstone.spongeremotechests.manager;
+
+import com.github.projectsandstone.spongeremotechests.api.OwnedContainer;
+import com.github.projectsandstone.spongeremotechests.api.RemoteContainer;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Copies all containers of a {@link Backend} to another {@link Backend}.
+ */
+public final class BackendMigrator {
+
+    private BackendMigrator() {
+        throw new IllegalStateException();
+    }
+
+    /**
+     * Registers all containers of {@code from} in {@code to}, reading and registering {@code
+     * batchSize} containers at time. Containers already registered in {@code to} are kept.
+     *
+     * @param from      Backend to read containers from.
+     * @param to        Backend to register containers in.
+     * @param batchSize Number of containers to read and register at time.
+     * @return Number of containers read from {@code from}.
+     */
+    public static long migrate(@NotNull Backend from, @NotNull Backend to, int batchSize) {
+        AtomicLong count = new AtomicLong();
+
+        from.forEachContainer(batchSize, batch -> {
+            Map<UUID, Collection<RemoteContainer>> byOwner = new LinkedHashMap<>();
+
+            for (OwnedContainer ownedContainer : batch)
+                byOwner.computeIfAbsent(ownedContainer.getOwner(), uuid -> new ArrayList<>())
+                        .add(ownedContainer.getContainer());
+
+            to.registerAll(byOwner).join();
+            count.addAndGet(batch.size());
+        }).join();
+
+        return count.get();
+    }
+}
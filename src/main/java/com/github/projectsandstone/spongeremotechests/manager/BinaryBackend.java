@@ -0,0 +1,311 @@
+/**
+ *      SpongeRemoteChests - Access your containers remotely.
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2017 Sandstone <https://github.com/ProjectSandstone/SpongeRemoteChests/>
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.projectsandstone.spongeremotechests.manager;
+
+import com.google.common.base.Charsets;
+
+import com.github.projectsandstone.spongeremotechests.api.RemoteContainer;
+import com.github.projectsandstone.spongeremotechests.api.factory.RemoteContainerFactory;
+import com.github.projectsandstone.spongeremotechests.config.SavesConfig;
+import com.github.projectsandstone.spongeremotechests.util.InternPool;
+import com.github.projectsandstone.spongeremotechests.util.Positions;
+
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.spongepowered.api.Sponge;
+import org.spongepowered.api.scheduler.Task;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Cache values in a map and save all containers in a compact binary file.
+ *
+ * File format (big-endian):
+ *
+ * <pre>
+ * header:  int magic ("SRCB"), int version
+ * uuids:   int count, count * (long most significant bits, long least significant bits)
+ * names:   int count, count * (unsigned short length, length * byte UTF-8)
+ * records: int count, count * (unsigned short length, length * byte record)
+ * record:  int owner (uuid index), int world (uuid index), long position (see {@link Positions}),
+ *          int name (name index or -1)
+ * </pre>
+ *
+ * Owner and world unique ids and names are stored once in the tables and referenced by index.
+ * Records are length-prefixed, so fields appended by future versions are skipped by readers of
+ * older versions. The file is read at once to load and saved in background like {@link
+ * ConfigBackend} (to a temporary file which is moved over the old file). Containers do not need
+ * their world to be loaded, so all containers are loaded whether or not their world exists.
+ */
+public final class BinaryBackend extends MemoryBackend {
+
+    private static final int MAGIC = 0x53524342; // SRCB
+    private static final int VERSION = 1;
+    private static final int NO_NAME = -1;
+    private static final int RECORD_LENGTH = 4 + 4 + 8 + 4;
+    private static final String TEMP_EXTENSION = ".tmp";
+
+    private final Logger logger;
+    private final Path file;
+
+    /**
+     * Serializes saves, a periodic save may still be running when the backend is closed.
+     */
+    private final Object flushLock = new Object();
+
+    /**
+     * Whether any container changed since last save.
+     */
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    @Nullable
+    private final Task flushTask;
+
+    /**
+     * Creates a backend which saves containers in {@code file}.
+     *
+     * @param plugin      Plugin to schedule background saves.
+     * @param logger      Logger.
+     * @param file        Saves file.
+     * @param savesConfig Saves configuration.
+     */
+    public BinaryBackend(Object plugin, Logger logger, Path file, SavesConfig savesConfig) {
+        this.logger = logger;
+        this.file = file;
+
+        try {
+            if (Files.exists(this.file))
+                this.load();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        this.index();
+
+        if (savesConfig.getFlushInterval() > 0)
+            this.flushTask = Sponge.getScheduler().createTaskBuilder()
+                    .async()
+                    .delay(savesConfig.getFlushInterval(), TimeUnit.SECONDS)
+                    .interval(savesConfig.getFlushInterval(), TimeUnit.SECONDS)
+                    .name("SpongeRemoteChests - Save containers")
+                    .execute(this::flush)
+                    .submit(plugin);
+        else
+            this.flushTask = null;
+    }
+
+    @Override
+    protected void added(UUID owner, RemoteContainer remoteContainer) {
+        this.dirty.set(true);
+    }
+
+    @Override
+    protected void removed(UUID owner, RemoteContainer remoteContainer) {
+        this.dirty.set(true);
+    }
+
+    /**
+     * Saves all containers if any container changed since last save. Called periodically in
+     * background, but may be called in any thread.
+     */
+    public void flush() {
+        synchronized (this.flushLock) {
+            // A change made while collecting records marks the backend dirty again
+            if (!this.dirty.getAndSet(false))
+                return;
+
+            List<Record> records = new ArrayList<>();
+
+            this.map.forEach((owner, remoteContainers) -> {
+                for (RemoteContainer remoteContainer : remoteContainers)
+                    records.add(Record.of(owner, remoteContainer));
+            });
+
+            try {
+                this.save(records);
+            } catch (IOException e) {
+                this.logger.error("Failed to save containers, retrying on next save.", e);
+                this.dirty.set(true);
+            }
+        }
+    }
+
+    /**
+     * Stops background saves and saves pending changes.
+     */
+    @Override
+    public void close() {
+        if (this.flushTask != null)
+            this.flushTask.cancel();
+
+        this.flush();
+    }
+
+    private void load() throws IOException {
+        // Not memory-mapped: a mapping is only released when collected and would keep the file
+        // locked on Windows, so the file could not be replaced on save
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(this.file));
+
+        if (buffer.getInt() != MAGIC)
+            throw new IOException("'" + this.file + "' is not a containers file.");
+
+        int version = buffer.getInt();
+
+        if (version > VERSION)
+            throw new IOException("'" + this.file + "' was saved by a newer version (" + version + "), update the plugin.");
+
+        UUID[] uuids = new UUID[buffer.getInt()];
+
+        for (int i = 0; i < uuids.length; i++)
+            uuids[i] = new UUID(buffer.getLong(), buffer.getLong());
+
+        String[] names = new String[buffer.getInt()];
+
+        for (int i = 0; i < names.length; i++) {
+            byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+            buffer.get(bytes);
+            names[i] = InternPool.NAMES.intern(new String(bytes, Charsets.UTF_8));
+        }
+
+        int records = buffer.getInt();
+
+        for (int i = 0; i < records; i++) {
+            int length = Short.toUnsignedInt(buffer.getShort());
+            int next = buffer.position() + length;
+
+            UUID owner = uuids[buffer.getInt()];
+            UUID worldUuid = uuids[buffer.getInt()];
+            long position = buffer.getLong();
+            int nameIndex = buffer.getInt();
+            String name = nameIndex == NO_NAME ? null : names[nameIndex];
+
+            buffer.position(next);
+
+            this.containersOf(owner).add(RemoteContainerFactory.createChest(name, worldUuid,
+                    Positions.unpackX(position), Positions.unpackY(position), Positions.unpackZ(position)));
+        }
+    }
+
+    private void save(List<Record> records) throws IOException {
+        Map<UUID, Integer> uuids = new LinkedHashMap<>();
+        Map<String, Integer> names = new LinkedHashMap<>();
+
+        for (Record record : records) {
+            uuids.putIfAbsent(record.owner, uuids.size());
+            uuids.putIfAbsent(record.world, uuids.size());
+
+            if (record.name != null)
+                names.putIfAbsent(record.name, names.size());
+        }
+
+        Path temp = this.file.resolveSibling(this.file.getFileName() + TEMP_EXTENSION);
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+
+            out.writeInt(uuids.size());
+
+            for (UUID uuid : uuids.keySet()) {
+                out.writeLong(uuid.getMostSignificantBits());
+                out.writeLong(uuid.getLeastSignificantBits());
+            }
+
+            out.writeInt(names.size());
+
+            for (String name : names.keySet()) {
+                byte[] bytes = name.getBytes(Charsets.UTF_8);
+
+                if (bytes.length > 0xFFFF)
+                    throw new IOException("Container name is too long: " + name);
+
+                out.writeShort(bytes.length);
+                out.write(bytes);
+            }
+
+            out.writeInt(records.size());
+
+            for (Record record : records) {
+                out.writeShort(RECORD_LENGTH);
+                out.writeInt(uuids.get(record.owner));
+                out.writeInt(uuids.get(record.world));
+                out.writeLong(record.position);
+                out.writeInt(record.name == null ? NO_NAME : names.get(record.name));
+            }
+
+            out.flush();
+            channel.force(true);
+        }
+
+        try {
+            Files.move(temp, this.file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, this.file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static final class Record {
+        private final UUID owner;
+        private final UUID world;
+        private final long position;
+        @Nullable
+        private final String name;
+
+        Record(UUID owner, UUID world, long position, @Nullable String name) {
+            this.owner = owner;
+            this.world = world;
+            this.position = position;
+            this.name = name;
+        }
+
+        static Record of(UUID owner, RemoteContainer remoteContainer) {
+            return new Record(owner, remoteContainer.getWorldUniqueId(),
+                    Positions.pack(remoteContainer.getBlockX(), remoteContainer.getBlockY(), remoteContainer.getBlockZ()),
+                    remoteContainer.getName().orElse(null));
+        }
+    }
+}
@@ -0,0 +1,403 @@
+/**
+ *      SpongeRemoteChests - Access your containers remotely.
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2017 Sandstone <https://github.com/ProjectSandstone/SpongeRemoteChests/>
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.projectsandstone.spongeremotechests.manager;
+
+import com.flowpowered.math.vector.Vector3i;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import com.github.projectsandstone.spongeremotechests.api.OwnedContainer;
+import com.github.projectsandstone.spongeremotechests.api.RemoteContainer;
+import com.github.projectsandstone.spongeremotechests.api.Result;
+import com.github.projectsandstone.spongeremotechests.api.Results;
+import com.github.projectsandstone.spongeremotechests.api.query.ContainerQuery;
+import com.github.projectsandstone.spongeremotechests.config.CacheConfig;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.spongepowered.api.world.Location;
+import org.spongepowered.api.world.World;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the containers of recently used users in memory and backs all writes to {@link #backend}
+ * (write-through).
+ *
+ * Reads of cached users complete instantly, reads of non-cached users are backed to {@link
+ * #backend} and the result is cached. Bulk and location reads ({@link #getAllContainers()}, {@link
+ * #forEachContainer(int, Consumer)}, {@link #getLinksAt(Location)} and {@link
+ * #getLinksInChunk(World, int, int)}) are never cached.
+ *
+ * Containers of pinned users (see {@link #pin(UUID)}) are kept apart from the cache and are never
+ * evicted until unpinned, then they are moved to the cache.
+ */
+public final class CachedBackend extends Backend {
+
+    private static final int PIN_ATTEMPTS = 3;
+    private static final int VERSION_STRIPES = 64;
+
+    private final Backend backend;
+    private final Cache<UUID, Set<RemoteContainer>> cache;
+    private final Map<UUID, Pin> pinned = new ConcurrentHashMap<>();
+
+    /**
+     * Versions of owners, striped by owner, and version of all owners. Incremented before and after
+     * every write, a load that started before a write is not cached because it may not reflect that
+     * write. Writes only stop concurrent loads of owners of the same stripe from being cached.
+     */
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+    private final AtomicLong allVersion = new AtomicLong();
+
+    public CachedBackend(Backend backend, CacheConfig cacheConfig) {
+        this.backend = backend;
+
+        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder()
+                .maximumSize(cacheConfig.getMaxUsers());
+
+        if (cacheConfig.getExpireAfterAccess() > 0)
+            builder.expireAfterAccess(cacheConfig.getExpireAfterAccess(), TimeUnit.SECONDS);
+
+        this.cache = builder.build();
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Boolean> hasAnyContainer(@NotNull UUID owner) {
+        return this.load(owner).thenApply(remoteContainers -> !remoteContainers.isEmpty());
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Integer> countContainers(@NotNull UUID owner) {
+        Set<RemoteContainer> cached = this.cached(owner);
+
+        if (cached != null)
+            return CompletableFuture.completedFuture(cached.size());
+
+        return this.backend.countContainers(owner);
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Set<RemoteContainer>> getAllContainers(@NotNull UUID owner) {
+        return this.load(owner).thenApply(Collections::unmodifiableSet);
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Set<RemoteContainer>> getContainers(@NotNull UUID owner, @NotNull ContainerQuery query) {
+        Set<RemoteContainer> cached = this.cached(owner);
+
+        if (cached != null)
+            return CompletableFuture.completedFuture(cached.stream().filter(query).collect(Collectors.toSet()));
+
+        return this.backend.getContainers(owner, query);
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Optional<RemoteContainer>> getContainer(@NotNull UUID owner, @NotNull String name) {
+        Set<RemoteContainer> cached = this.cached(owner);
+
+        if (cached != null)
+            return CompletableFuture.completedFuture(cached.stream().filter(ContainerQuery.named(name)).findFirst());
+
+        return this.backend.getContainer(owner, name);
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Boolean> isOwner(@NotNull UUID owner, @NotNull RemoteContainer container) {
+        Set<RemoteContainer> cached = this.cached(owner);
+
+        if (cached != null)
+            return CompletableFuture.completedFuture(cached.contains(container));
+
+        return this.backend.isOwner(owner, container);
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Map<UUID, Set<RemoteContainer>>> getAllContainers() {
+        return this.backend.getAllContainers();
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Void> forEachContainer(int batchSize, @NotNull Consumer<List<OwnedContainer>> consumer) {
+        return this.backend.forEachContainer(batchSize, consumer);
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Map<UUID, RemoteContainer>> getLinksAt(@NotNull Location<World> location) {
+        return this.backend.getLinksAt(location);
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Map<UUID, Set<RemoteContainer>>> getLinksInChunk(@NotNull World world, int chunkX, int chunkZ) {
+        return this.backend.getLinksInChunk(world, chunkX, chunkZ);
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Map<UUID, Set<RemoteContainer>>> getLinksInChunks(@NotNull World world, @NotNull Collection<Vector3i> chunks) {
+        return this.backend.getLinksInChunks(world, chunks);
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Boolean> register(@NotNull UUID owner, @NotNull RemoteContainer remoteContainer) {
+        this.written(owner);
+
+        return this.backend.register(owner, remoteContainer).thenApply(registered -> {
+            this.written(owner);
+
+            if (registered) {
+                Set<RemoteContainer> cached = this.cached(owner);
+
+                if (cached != null)
+                    cached.add(remoteContainer);
+            }
+
+            return registered;
+        });
+    }
+
+    /**
+     * Counting and registering is done atomically by {@link #backend}.
+     */
+    @Override
+    public @NotNull CompletableFuture<Result> register(@NotNull UUID owner, @NotNull RemoteContainer remoteContainer, int limit) {
+        this.written(owner);
+
+        return this.backend.register(owner, remoteContainer, limit).thenApply(result -> {
+            this.written(owner);
+
+            if (result == Results.SUCCESS) {
+                Set<RemoteContainer> cached = this.cached(owner);
+
+                if (cached != null)
+                    cached.add(remoteContainer);
+            }
+
+            return result;
+        });
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Map<UUID, Map<RemoteContainer, Boolean>>> registerAll(@NotNull Map<UUID, ? extends Collection<RemoteContainer>> containers) {
+        this.written(containers.keySet());
+
+        return this.backend.registerAll(containers).thenApply(results -> {
+            this.written(containers.keySet());
+
+            results.forEach((owner, userResults) -> {
+                Set<RemoteContainer> cached = this.cached(owner);
+
+                if (cached != null)
+                    userResults.forEach((remoteContainer, registered) -> {
+                        if (registered)
+                            cached.add(remoteContainer);
+                    });
+            });
+
+            return results;
+        });
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Boolean> unregister(@NotNull UUID owner, @NotNull ContainerQuery query) {
+        this.written(owner);
+
+        return this.backend.unregister(owner, query).thenApply(removed -> {
+            this.written(owner);
+
+            if (removed) {
+                Set<RemoteContainer> cached = this.cached(owner);
+
+                if (cached != null)
+                    cached.removeIf(query);
+            }
+
+            return removed;
+        });
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Boolean> unregisterAll(@NotNull ContainerQuery query) {
+        this.writtenAll();
+
+        return this.backend.unregisterAll(query).thenApply(removed -> {
+            this.writtenAll();
+
+            if (removed) {
+                this.cache.asMap().values().forEach(cached -> cached.removeIf(query));
+                this.pinned.values().forEach(pin -> {
+                    Set<RemoteContainer> cached = pin.containers;
+
+                    if (cached != null)
+                        cached.removeIf(query);
+                });
+            }
+
+            return removed;
+        });
+    }
+
+    /**
+     * Loads containers of {@code owner}, retrying (up to {@link #PIN_ATTEMPTS} times) while writes
+     * made during the load may not be reflected by it.
+     */
+    @Override
+    public @NotNull CompletableFuture<Void> pin(@NotNull UUID owner) {
+        Pin pin = this.pinned.computeIfAbsent(owner, uuid -> new Pin());
+
+        if (pin.containers != null)
+            return CompletableFuture.completedFuture(null);
+
+        return this.pin(owner, pin, PIN_ATTEMPTS);
+    }
+
+    @Override
+    public void unpin(@NotNull UUID owner) {
+        Pin pin = this.pinned.remove(owner);
+
+        // Writes made while pinned only updated the pinned set
+        if (pin != null && pin.containers != null)
+            this.cache.put(owner, pin.containers);
+    }
+
+    @Override
+    public void close() {
+        this.pinned.clear();
+        this.cache.invalidateAll();
+        this.backend.close();
+    }
+
+    private CompletableFuture<Void> pin(UUID owner, Pin pin, int attempts) {
+        Set<RemoteContainer> cached = this.cache.getIfPresent(owner);
+
+        if (cached != null) {
+            pin.containers = cached;
+            return CompletableFuture.completedFuture(null);
+        }
+
+        long loadVersion = this.version(owner);
+
+        return this.backend.getAllContainers(owner).thenCompose(remoteContainers -> {
+            // Unpinned while loading
+            if (this.pinned.get(owner) != pin)
+                return CompletableFuture.completedFuture(null);
+
+            Set<RemoteContainer> set = ConcurrentHashMap.newKeySet(remoteContainers.size());
+            set.addAll(remoteContainers);
+
+            // Published before checking the version: writes completing after the check update this
+            // set, writes completing before it change the version
+            pin.containers = set;
+
+            if (this.version(owner) == loadVersion)
+                return CompletableFuture.completedFuture(null);
+
+            pin.containers = null;
+
+            return attempts > 1
+                    ? this.pin(owner, pin, attempts - 1)
+                    : CompletableFuture.completedFuture(null);
+        });
+    }
+
+    private Set<RemoteContainer> cached(UUID owner) {
+        Pin pin = this.pinned.get(owner);
+
+        if (pin != null) {
+            Set<RemoteContainer> containers = pin.containers;
+
+            if (containers != null)
+                return containers;
+        }
+
+        return this.cache.getIfPresent(owner);
+    }
+
+    private CompletableFuture<Set<RemoteContainer>> load(UUID owner) {
+        Set<RemoteContainer> cached = this.cached(owner);
+
+        if (cached != null)
+            return CompletableFuture.completedFuture(cached);
+
+        long loadVersion = this.version(owner);
+
+        return this.backend.getAllContainers(owner).thenApply(remoteContainers -> {
+            Set<RemoteContainer> set = ConcurrentHashMap.newKeySet(remoteContainers.size());
+            set.addAll(remoteContainers);
+
+            // Cached before checking the version: writes completing after the check update this
+            // set, writes completing before it change the version
+            if (this.cache.asMap().putIfAbsent(owner, set) == null && this.version(owner) != loadVersion)
+                this.cache.asMap().remove(owner, set);
+
+            return set;
+        });
+    }
+
+    private long version(UUID owner) {
+        // Both only grow, so the sum changes whenever any of them changes
+        return this.versions.get(CachedBackend.stripe(owner)) + this.allVersion.get();
+    }
+
+    private void written(UUID owner) {
+        this.versions.incrementAndGet(CachedBackend.stripe(owner));
+    }
+
+    private void written(Collection<UUID> owners) {
+        for (UUID owner : owners)
+            this.written(owner);
+    }
+
+    private void writtenAll() {
+        this.allVersion.incrementAndGet();
+    }
+
+    private static int stripe(UUID owner) {
+        return owner.hashCode() & (VERSION_STRIPES - 1);
+    }
+
+    private static final class Pin {
+        /**
+         * Containers of pinned user, null while loading.
+         */
+        @Nullable
+        private volatile Set<RemoteContainer> containers;
+    }
+}
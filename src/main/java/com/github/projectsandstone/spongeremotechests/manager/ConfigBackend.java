@@ -30,101 +30,320 @@ package com.github.projectsandstone.spongeremotechests.manager;
 import com.google.common.reflect.TypeToken;
 
 import com.github.projectsandstone.spongeremotechests.api.RemoteContainer;
-import com.github.projectsandstone.spongeremotechests.util.MapSetView;
+import com.github.projectsandstone.spongeremotechests.config.SavesConfig;
 
-import org.jetbrains.annotations.NotNull;
-import org.spongepowered.api.entity.living.player.User;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.spongepowered.api.Sponge;
+import org.spongepowered.api.scheduler.Task;
 
 import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.CompletableFuture;
-import java.util.function.Predicate;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import ninja.leaping.configurate.ConfigurationNode;
-import ninja.leaping.configurate.loader.ConfigurationLoader;
+import ninja.leaping.configurate.hocon.HoconConfigurationLoader;
 import ninja.leaping.configurate.objectmapping.ObjectMappingException;
 
 /**
- * Cache values in a map and save in a configuration.
+ * Cache values in a map and save containers of each owner in a configuration file of saves
+ * directory.
+ *
+ * Saves are write-behind: owners changed since last save are saved periodically in background
+ * (and when the backend is {@link #close() closed}), so a save costs time proportional to changed
+ * owners. Each file is written to a temporary file which is then moved over the old file. Changes
+ * are also appended to a {@link SaveJournal} which is replayed on load, so changes made after last
+ * save are not lost if the server crashes.
  */
-public final class ConfigBackend extends Backend {
-    private static final TypeToken<Map<User, Set<RemoteContainer>>> MAP_TOKEN = new TypeToken<Map<User, Set<RemoteContainer>>>() {
+public final class ConfigBackend extends MemoryBackend {
+    private static final TypeToken<Map<UUID, Set<RemoteContainer>>> MAP_TOKEN = new TypeToken<Map<UUID, Set<RemoteContainer>>>() {
+    };
+    private static final TypeToken<Set<RemoteContainer>> SET_TOKEN = new TypeToken<Set<RemoteContainer>>() {
     };
+    private static final String SAVE_EXTENSION = ".conf";
+    private static final String TEMP_EXTENSION = ".tmp";
+    private static final String MIGRATED_EXTENSION = ".migrated";
+    private static final String SKIPPED_EXTENSION = ".skipped";
 
-    private final ConfigurationLoader<? extends ConfigurationNode> loader;
-    private final ConfigurationNode node;
-    private final Map<User, Set<RemoteContainer>> map;
-    private final MapSetView<User, RemoteContainer> view;
+    private final Logger logger;
+    private final Path directory;
+    private final Path legacySaves;
 
-    public ConfigBackend(ConfigurationLoader<? extends ConfigurationNode> loader) {
-        this.loader = loader;
+    /**
+     * Serializes saves, a periodic save may still be running when the backend is closed.
+     */
+    private final Object flushLock = new Object();
 
-        try {
-            this.node = this.loader.load();
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+    /**
+     * Owners changed since last save. An owner is marked before its change is appended to journal,
+     * and journal is rotated before owners are taken from this set, so each change of a rotated
+     * journal file is saved by the flush which deletes the file.
+     */
+    private final Set<UUID> dirty = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Replayed journal files with skipped lines, which are kept (renamed) instead of deleted when
+     * obsolete, so skipped changes can still be recovered by hand. Guarded by {@link #flushLock}.
+     */
+    private final Set<Path> skippedJournals = new HashSet<>();
+
+    @Nullable
+    private final SaveJournal journal;
+    @Nullable
+    private final Task flushTask;
+
+    /**
+     * Creates a backend which saves containers in {@code directory}.
+     *
+     * @param plugin      Plugin to schedule background saves.
+     * @param logger      Logger.
+     * @param directory   Saves directory.
+     * @param legacySaves Single file saves of previous versions, migrated to {@code directory} and
+     *                    renamed after the first save.
+     * @param savesConfig Saves configuration.
+     */
+    public ConfigBackend(Object plugin, Logger logger, Path directory, Path legacySaves, SavesConfig savesConfig) {
+        this.logger = logger;
+        this.directory = directory;
+        this.legacySaves = legacySaves;
 
         try {
-            this.map = Objects.requireNonNull(this.node).getValue(MAP_TOKEN, new HashMap<>());
-            this.view = new MapSetView<>(this.map);
-        } catch (ObjectMappingException e) {
+            Files.createDirectories(this.directory);
+
+            if (Files.exists(this.legacySaves))
+                this.loadLegacy();
+
+            this.loadSaves();
+
+            for (Path file : SaveJournal.list(this.directory))
+                this.replay(file);
+
+            this.journal = savesConfig.isJournal() ? new SaveJournal(this.directory) : null;
+        } catch (IOException | ObjectMappingException e) {
             throw new RuntimeException(e);
         }
+
+        this.index();
+
+        if (savesConfig.getFlushInterval() > 0)
+            this.flushTask = Sponge.getScheduler().createTaskBuilder()
+                    .async()
+                    .delay(savesConfig.getFlushInterval(), TimeUnit.SECONDS)
+                    .interval(savesConfig.getFlushInterval(), TimeUnit.SECONDS)
+                    .name("SpongeRemoteChests - Save containers")
+                    .execute(this::flush)
+                    .submit(plugin);
+        else
+            this.flushTask = null;
     }
 
     @Override
-    public @NotNull CompletableFuture<Boolean> hasAnyContainer(@NotNull User user) {
-        return CompletableFuture.completedFuture(
-                !this.map.containsKey(user)
-                        || Objects.requireNonNull(this.map.get(user)).isEmpty()
-        );
+    protected void added(UUID owner, RemoteContainer remoteContainer) {
+        this.dirty.add(owner);
+
+        if (this.journal != null) {
+            try {
+                this.journal.add(owner, remoteContainer);
+            } catch (IOException e) {
+                this.logger.error("Failed to write registration of container to journal.", e);
+            }
+        }
     }
 
     @Override
-    public @NotNull CompletableFuture<Set<RemoteContainer>> getAllContainers(@NotNull User user) {
-        if (!this.map.containsKey(user))
-            return CompletableFuture.completedFuture(Collections.emptySet());
+    protected void removed(UUID owner, RemoteContainer remoteContainer) {
+        this.dirty.add(owner);
+
+        if (this.journal != null) {
+            try {
+                this.journal.remove(owner, remoteContainer);
+            } catch (IOException e) {
+                this.logger.error("Failed to write removal of container to journal.", e);
+            }
+        }
+    }
+
+    /**
+     * Saves all owners changed since last save. Called periodically in background, but may be
+     * called in any thread.
+     */
+    public void flush() {
+        synchronized (this.flushLock) {
+            List<Path> obsoleteJournals;
+
+            if (this.dirty.isEmpty())
+                return;
+
+            try {
+                obsoleteJournals = this.journal != null ? this.journal.rotate() : SaveJournal.list(this.directory);
+            } catch (IOException e) {
+                this.logger.error("Failed to rotate journal, journal will not be cleaned up until next save.", e);
+                obsoleteJournals = Collections.emptyList();
+            }
+
+            Map<UUID, Set<RemoteContainer>> changed = new HashMap<>();
+
+            for (UUID owner : this.dirty) {
+                // Owner changed after removal is marked again and saved on next save
+                this.dirty.remove(owner);
+                changed.put(owner, new HashSet<>(this.map.getOrDefault(owner, Collections.emptySet())));
+            }
+
+            boolean saved = true;
 
+            for (Map.Entry<UUID, Set<RemoteContainer>> entry : changed.entrySet()) {
+                try {
+                    this.save(entry.getKey(), entry.getValue());
+                } catch (IOException | ObjectMappingException | RuntimeException e) {
+                    // Any failure keeps the owner dirty, the other owners are still saved
+                    this.logger.error("Failed to save containers of '" + entry.getKey() + "', retrying on next save.", e);
+                    saved = false;
+                    this.dirty.add(entry.getKey());
+                }
+            }
 
-        return CompletableFuture.completedFuture(Collections.unmodifiableSet(this.map.get(user)));
+            // Changes in journals are only obsolete when all changed owners were saved
+            if (!saved)
+                return;
+
+            try {
+                for (Path file : obsoleteJournals) {
+                    if (this.skippedJournals.remove(file)) {
+                        Path kept = file.resolveSibling(file.getFileName() + SKIPPED_EXTENSION);
+
+                        this.logger.warn("Journal '" + file + "' had skipped lines, keeping it as '" + kept.getFileName() + "'.");
+                        Files.move(file, kept, StandardCopyOption.REPLACE_EXISTING);
+                    } else {
+                        Files.deleteIfExists(file);
+                    }
+                }
+
+                if (Files.exists(this.legacySaves))
+                    Files.move(this.legacySaves, this.legacySaves.resolveSibling(this.legacySaves.getFileName() + MIGRATED_EXTENSION),
+                            StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                this.logger.error("Failed to clean up saved journals.", e);
+            }
+        }
     }
 
+    /**
+     * Stops background saves, saves pending changes and closes the journal.
+     */
     @Override
-    public @NotNull CompletableFuture<Boolean> isOwner(@NotNull User user, @NotNull RemoteContainer container) {
-        return CompletableFuture.completedFuture(this.map.containsKey(user) && this.map.get(user).contains(container));
+    public void close() {
+        if (this.flushTask != null)
+            this.flushTask.cancel();
+
+        this.flush();
+
+        if (this.journal != null) {
+            try {
+                this.journal.close();
+            } catch (IOException e) {
+                this.logger.error("Failed to close journal.", e);
+            }
+        }
     }
 
-    @Override
-    public @NotNull CompletableFuture<Map<User, Set<RemoteContainer>>> getAllContainers() {
-        return CompletableFuture.completedFuture(this.view);
+    /**
+     * Writes {@code remoteContainers} of {@code owner} to a temporary file and moves it over the
+     * save file of {@code owner}. The save file is deleted if there is no container.
+     */
+    private void save(UUID owner, Set<RemoteContainer> remoteContainers) throws IOException, ObjectMappingException {
+        Path file = this.directory.resolve(owner + SAVE_EXTENSION);
+
+        if (remoteContainers.isEmpty()) {
+            Files.deleteIfExists(file);
+            return;
+        }
+
+        Path temp = this.directory.resolve(owner + SAVE_EXTENSION + TEMP_EXTENSION);
+        HoconConfigurationLoader loader = HoconConfigurationLoader.builder().setPath(temp).build();
+        ConfigurationNode node = loader.createEmptyNode();
+
+        node.setValue(SET_TOKEN, remoteContainers);
+        loader.save(node);
+
+        try {
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
     }
 
-    @Override
-    public @NotNull CompletableFuture<Boolean> register(@NotNull User user, @NotNull RemoteContainer remoteContainer) {
+    /**
+     * Loads the single file saves of previous versions, all owners are saved on next save.
+     */
+    private void loadLegacy() throws IOException, ObjectMappingException {
+        ConfigurationNode node = HoconConfigurationLoader.builder().setPath(this.legacySaves).build().load();
+        Map<UUID, Set<RemoteContainer>> legacy = Objects.requireNonNull(node).getValue(MAP_TOKEN, new HashMap<>());
+
+        legacy.forEach((owner, remoteContainers) -> this.containersOf(owner).addAll(remoteContainers));
+        this.dirty.addAll(legacy.keySet());
+    }
 
-        if(!this.map.containsKey(user))
-            this.map.put(user, new HashSet<>());
-        else if(this.map.get(user).contains(remoteContainer))
-            return CompletableFuture.completedFuture(Boolean.FALSE);
+    private void loadSaves() throws IOException, ObjectMappingException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.directory, "*" + SAVE_EXTENSION)) {
+            for (Path file : stream) {
+                String fileName = file.getFileName().toString();
+                UUID owner;
 
-        this.map.get(user).add(remoteContainer);
+                try {
+                    owner = UUID.fromString(fileName.substring(0, fileName.length() - SAVE_EXTENSION.length()));
+                } catch (IllegalArgumentException e) {
+                    this.logger.warn("Ignoring unknown file '" + file + "' in saves directory.");
+                    continue;
+                }
 
-        return CompletableFuture.completedFuture(Boolean.TRUE);
+                ConfigurationNode node = HoconConfigurationLoader.builder().setPath(file).build().load();
+                Set<RemoteContainer> remoteContainers = node.getValue(SET_TOKEN, Collections.emptySet());
+
+                this.containersOf(owner).addAll(remoteContainers);
+            }
+        }
     }
 
-    @Override
-    public @NotNull CompletableFuture<Boolean> unregister(@NotNull User user, @NotNull Predicate<RemoteContainer> predicate) {
+    /**
+     * Replays changes of journal {@code file}, owners changed by journal are saved on next save.
+     */
+    private void replay(Path file) throws IOException {
+        int skipped = SaveJournal.replay(file, this.logger, new SaveJournal.Consumer() {
+            @Override
+            public void add(UUID owner, RemoteContainer remoteContainer) {
+                ConfigBackend.this.containersOf(owner).add(remoteContainer);
+                ConfigBackend.this.dirty.add(owner);
+            }
 
-        if(!this.map.containsKey(user))
-            return CompletableFuture.completedFuture(Boolean.FALSE);
+            @Override
+            public void remove(UUID owner, RemoteContainer remoteContainer) {
+                Set<RemoteContainer> remoteContainers = ConfigBackend.this.map.get(owner);
 
-        return CompletableFuture.completedFuture(this.map.get(user).removeIf(predicate));
+                if (remoteContainers != null)
+                    remoteContainers.remove(remoteContainer);
+
+                ConfigBackend.this.dirty.add(owner);
+            }
+        });
+
+        if (skipped > 0) {
+            synchronized (this.flushLock) {
+                this.skippedJournals.add(file);
+            }
+        }
     }
 
 }
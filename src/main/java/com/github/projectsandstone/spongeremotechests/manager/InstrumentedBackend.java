@@ -0,0 +1,166 @@
+/**
+ *      SpongeRemoteChests - Access your containers remotely.
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2017 Sandstone <https://github.com/ProjectSandstone/SpongeRemoteChests/>
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.projectsandstone.spongeremotechests.manager;
+
+import com.flowpowered.math.vector.Vector3i;
+
+import com.github.projectsandstone.spongeremotechests.api.OwnedContainer;
+import com.github.projectsandstone.spongeremotechests.api.RemoteContainer;
+import com.github.projectsandstone.spongeremotechests.api.Result;
+import com.github.projectsandstone.spongeremotechests.api.query.ContainerQuery;
+import com.github.projectsandstone.spongeremotechests.metrics.Metrics;
+
+import org.jetbrains.annotations.NotNull;
+import org.spongepowered.api.world.Location;
+import org.spongepowered.api.world.World;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Records {@link Metrics} of each operation of {@link #backend}, operations are named {@code
+ * <prefix>.<method>}.
+ */
+public final class InstrumentedBackend extends Backend {
+
+    private final Backend backend;
+    private final Metrics metrics;
+    private final String prefix;
+
+    /**
+     * @param backend Backend to record operations of.
+     * @param metrics Metrics to record to.
+     * @param prefix  Prefix of names of operations.
+     */
+    public InstrumentedBackend(Backend backend, Metrics metrics, String prefix) {
+        this.backend = backend;
+        this.metrics = metrics;
+        this.prefix = prefix + ".";
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Boolean> hasAnyContainer(@NotNull UUID owner) {
+        return this.metrics.time(this.prefix + "hasAnyContainer", () -> this.backend.hasAnyContainer(owner));
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Integer> countContainers(@NotNull UUID owner) {
+        return this.metrics.time(this.prefix + "countContainers", () -> this.backend.countContainers(owner));
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Set<RemoteContainer>> getAllContainers(@NotNull UUID owner) {
+        return this.metrics.time(this.prefix + "getAllContainers", () -> this.backend.getAllContainers(owner));
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Set<RemoteContainer>> getContainers(@NotNull UUID owner, @NotNull ContainerQuery query) {
+        return this.metrics.time(this.prefix + "getContainers", () -> this.backend.getContainers(owner, query));
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Optional<RemoteContainer>> getContainer(@NotNull UUID owner, @NotNull String name) {
+        return this.metrics.time(this.prefix + "getContainer", () -> this.backend.getContainer(owner, name));
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Boolean> isOwner(@NotNull UUID owner, @NotNull RemoteContainer container) {
+        return this.metrics.time(this.prefix + "isOwner", () -> this.backend.isOwner(owner, container));
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Map<UUID, Set<RemoteContainer>>> getAllContainers() {
+        return this.metrics.time(this.prefix + "getAllContainers(all)", this.backend::getAllContainers);
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Void> forEachContainer(int batchSize, @NotNull Consumer<List<OwnedContainer>> consumer) {
+        return this.metrics.time(this.prefix + "forEachContainer", () -> this.backend.forEachContainer(batchSize, consumer));
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Map<UUID, RemoteContainer>> getLinksAt(@NotNull Location<World> location) {
+        return this.metrics.time(this.prefix + "getLinksAt", () -> this.backend.getLinksAt(location));
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Map<UUID, Set<RemoteContainer>>> getLinksInChunk(@NotNull World world, int chunkX, int chunkZ) {
+        return this.metrics.time(this.prefix + "getLinksInChunk", () -> this.backend.getLinksInChunk(world, chunkX, chunkZ));
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Map<UUID, Set<RemoteContainer>>> getLinksInChunks(@NotNull World world, @NotNull Collection<Vector3i> chunks) {
+        return this.metrics.time(this.prefix + "getLinksInChunks", () -> this.backend.getLinksInChunks(world, chunks));
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Boolean> register(@NotNull UUID owner, @NotNull RemoteContainer remoteContainer) {
+        return this.metrics.time(this.prefix + "register", () -> this.backend.register(owner, remoteContainer));
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Result> register(@NotNull UUID owner, @NotNull RemoteContainer remoteContainer, int limit) {
+        return this.metrics.time(this.prefix + "register(limit)", () -> this.backend.register(owner, remoteContainer, limit));
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Map<UUID, Map<RemoteContainer, Boolean>>> registerAll(@NotNull Map<UUID, ? extends Collection<RemoteContainer>> containers) {
+        return this.metrics.time(this.prefix + "registerAll", () -> this.backend.registerAll(containers));
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Boolean> unregister(@NotNull UUID owner, @NotNull ContainerQuery query) {
+        return this.metrics.time(this.prefix + "unregister", () -> this.backend.unregister(owner, query));
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Boolean> unregisterAll(@NotNull ContainerQuery query) {
+        return this.metrics.time(this.prefix + "unregisterAll", () -> this.backend.unregisterAll(query));
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Void> pin(@NotNull UUID owner) {
+        return this.metrics.time(this.prefix + "pin", () -> this.backend.pin(owner));
+    }
+
+    @Override
+    public void unpin(@NotNull UUID owner) {
+        this.backend.unpin(owner);
+    }
+
+    @Override
+    public void close() {
+        this.backend.close();
+    }
+}
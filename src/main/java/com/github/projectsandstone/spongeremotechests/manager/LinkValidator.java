@@ -0,0 +1,421 @@
+/**
+ *      SpongeRemoteChests - Access your containers remotely.
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2017 Sandstone <https://github.com/ProjectSandstone/SpongeRemoteChests/>
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.projectsandstone.spongeremotechests.manager;
+
+import com.flowpowered.math.vector.Vector3i;
+
+import com.github.projectsandstone.spongeremotechests.api.RemoteContainer;
+import com.github.projectsandstone.spongeremotechests.api.manager.ContainerManager;
+import com.github.projectsandstone.spongeremotechests.config.ValidationConfig;
+import com.github.projectsandstone.spongeremotechests.util.Positions;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.spongepowered.api.Sponge;
+import org.spongepowered.api.block.tileentity.carrier.TileEntityCarrier;
+import org.spongepowered.api.event.Listener;
+import org.spongepowered.api.event.world.chunk.LoadChunkEvent;
+import org.spongepowered.api.scheduler.Task;
+import org.spongepowered.api.world.Chunk;
+import org.spongepowered.api.world.World;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Detects broken links (links whose block is no longer a container) without loading chunks.
+ *
+ * Links of a chunk are checked when the chunk is loaded for other reasons, and the state of each
+ * link is recorded with the time it was checked, so {@link #getKnownBroken(UUID)} answers without
+ * chunk I/O. Chunks loaded in the same tick are looked up together with {@link
+ * ContainerManager#getLinksInChunks(World, java.util.Collection)}. States of a chunk are replaced
+ * each time it is checked, so states of unregistered links are dropped on next check. Optional
+ * sweeps check all links, loading at most {@link ValidationConfig#getSweepChunksPerTick()} chunks
+ * per tick, chunks loaded by a sweep are not checked again as loaded chunks.
+ *
+ * Must be registered as listener.
+ */
+public final class LinkValidator {
+
+    private final Logger logger;
+    private final ContainerManager manager;
+    private final ValidationConfig config;
+    private final Executor mainThread;
+    private final ConcurrentMap<ChunkId, Map<UUID, Map<RemoteContainer, LinkState>>> states = new ConcurrentHashMap<>();
+
+    // Accessed only in main thread
+    private final Map<UUID, Set<Vector3i>> loaded = new HashMap<>();
+    private final Deque<Map.Entry<ChunkId, Map<UUID, Set<RemoteContainer>>>> sweep = new ArrayDeque<>();
+    private final Set<ChunkId> swept = new HashSet<>();
+    private long sweepStart;
+
+    private final Task loadedTickTask;
+    private final Task sweepTask;
+    private final Task sweepTickTask;
+
+    /**
+     * Creates a validator.
+     *
+     * @param plugin  Plugin to schedule tasks.
+     * @param logger  Logger.
+     * @param manager Manager to read links from.
+     * @param config  Validation configuration.
+     * @param useDb   Whether links are stored in a database.
+     */
+    public LinkValidator(Object plugin, Logger logger, ContainerManager manager, ValidationConfig config, boolean useDb) {
+        this.logger = logger;
+        this.manager = manager;
+        this.config = config;
+        this.mainThread = Sponge.getScheduler().createSyncExecutor(plugin);
+
+        if (config.isOnChunkLoad(useDb)) {
+            this.loadedTickTask = Sponge.getScheduler().createTaskBuilder()
+                    .intervalTicks(1)
+                    .name("SpongeRemoteChests - Check loaded links")
+                    .execute(this::loadedTick)
+                    .submit(plugin);
+        } else {
+            this.loadedTickTask = null;
+        }
+
+        if (config.getSweepInterval() > 0) {
+            this.sweepTask = Sponge.getScheduler().createTaskBuilder()
+                    .async()
+                    .delay(config.getSweepInterval(), TimeUnit.MINUTES)
+                    .interval(config.getSweepInterval(), TimeUnit.MINUTES)
+                    .name("SpongeRemoteChests - Sweep links")
+                    .execute(this::startSweep)
+                    .submit(plugin);
+
+            this.sweepTickTask = Sponge.getScheduler().createTaskBuilder()
+                    .intervalTicks(1)
+                    .name("SpongeRemoteChests - Check swept links")
+                    .execute(this::sweepTick)
+                    .submit(plugin);
+        } else {
+            this.sweepTask = null;
+            this.sweepTickTask = null;
+        }
+    }
+
+    /**
+     * Gets the last known state of {@code remoteContainer} linked by {@code owner}.
+     *
+     * @param owner           Owner of link.
+     * @param remoteContainer Linked container.
+     * @return Last known state, or empty if link was not checked yet.
+     */
+    @NotNull
+    public Optional<LinkState> getState(@NotNull UUID owner, @NotNull RemoteContainer remoteContainer) {
+        Map<UUID, Map<RemoteContainer, LinkState>> chunk = this.states.get(ChunkId.of(remoteContainer));
+
+        if (chunk == null)
+            return Optional.empty();
+
+        return Optional.ofNullable(chunk.getOrDefault(owner, Collections.emptyMap()).get(remoteContainer));
+    }
+
+    /**
+     * Gets links of {@code owner} which were broken when last checked.
+     *
+     * @param owner Owner of links.
+     * @return Links of {@code owner} known to be broken.
+     */
+    @NotNull
+    public Set<RemoteContainer> getKnownBroken(@NotNull UUID owner) {
+        Set<RemoteContainer> broken = new HashSet<>();
+
+        for (Map<UUID, Map<RemoteContainer, LinkState>> chunk : this.states.values())
+            LinkValidator.collectBroken(chunk.getOrDefault(owner, Collections.emptyMap()), broken);
+
+        return broken;
+    }
+
+    /**
+     * Gets all links which were broken when last checked.
+     *
+     * @return Map of owner to links known to be broken.
+     */
+    @NotNull
+    public Map<UUID, Set<RemoteContainer>> getKnownBroken() {
+        Map<UUID, Set<RemoteContainer>> broken = new HashMap<>();
+
+        for (Map<UUID, Map<RemoteContainer, LinkState>> chunk : this.states.values())
+            chunk.forEach((owner, links) -> {
+                Set<RemoteContainer> ownerBroken = new HashSet<>();
+
+                LinkValidator.collectBroken(links, ownerBroken);
+
+                if (!ownerBroken.isEmpty())
+                    broken.computeIfAbsent(owner, uuid -> new HashSet<>()).addAll(ownerBroken);
+            });
+
+        return broken;
+    }
+
+    /**
+     * Stops sweeps.
+     */
+    public void close() {
+        if (this.loadedTickTask != null)
+            this.loadedTickTask.cancel();
+
+        if (this.sweepTask != null)
+            this.sweepTask.cancel();
+
+        if (this.sweepTickTask != null)
+            this.sweepTickTask.cancel();
+    }
+
+    @Listener
+    public void chunkLoad(LoadChunkEvent event) {
+        if (this.loadedTickTask == null)
+            return;
+
+        Chunk chunk = event.getTargetChunk();
+        Vector3i position = chunk.getPosition();
+
+        // Loaded and checked by sweep
+        if (this.swept.contains(ChunkId.of(chunk.getWorld().getUniqueId(), position.getX(), position.getZ())))
+            return;
+
+        this.loaded.computeIfAbsent(chunk.getWorld().getUniqueId(), uuid -> new LinkedHashSet<>()).add(position);
+    }
+
+    private void loadedTick() {
+        if (this.loaded.isEmpty())
+            return;
+
+        this.loaded.forEach((worldId, positions) -> {
+            Optional<World> world = Sponge.getServer().getWorld(worldId);
+
+            if (!world.isPresent())
+                return;
+
+            List<Vector3i> chunks = new ArrayList<>(positions);
+
+            this.manager.getLinksInChunks(world.get(), chunks)
+                    .thenAcceptAsync(links -> {
+                        Map<ChunkId, Map<UUID, Set<RemoteContainer>>> byChunk = LinkValidator.byChunk(links);
+
+                        for (Vector3i position : chunks) {
+                            ChunkId id = ChunkId.of(worldId, position.getX(), position.getZ());
+                            Map<UUID, Set<RemoteContainer>> chunkLinks = byChunk.get(id);
+
+                            if (chunkLinks == null) {
+                                this.states.remove(id);
+                                continue;
+                            }
+
+                            // Chunk may have been unloaded meanwhile, checking it now would load it again
+                            world.get().getChunk(position).ifPresent(loaded -> this.check(loaded, chunkLinks));
+                        }
+                    }, this.mainThread)
+                    .exceptionally(t -> {
+                        this.logger.error("Failed to check links of " + chunks.size() + " loaded chunks.", t);
+                        return null;
+                    });
+        });
+
+        this.loaded.clear();
+    }
+
+    private void startSweep() {
+        this.manager.getAllContainersByUniqueId().thenAcceptAsync(all -> {
+            this.sweep.clear();
+            this.sweep.addAll(LinkValidator.byChunk(all).entrySet());
+            this.sweepStart = System.currentTimeMillis();
+        }, this.mainThread).exceptionally(t -> {
+            this.logger.error("Failed to start sweep of all links.", t);
+            return null;
+        });
+    }
+
+    private void sweepTick() {
+        int checks = 0;
+
+        this.swept.clear();
+
+        while (checks < this.config.getSweepChunksPerTick() && !this.sweep.isEmpty()) {
+            Map.Entry<ChunkId, Map<UUID, Set<RemoteContainer>>> entry = this.sweep.poll();
+            ChunkId id = entry.getKey();
+            Map<UUID, Map<RemoteContainer, LinkState>> known = this.states.get(id);
+
+            // Already checked on load since sweep started
+            if (known != null && known.values().stream().flatMap(links -> links.values().stream())
+                    .anyMatch(state -> state.getCheckedAt() >= this.sweepStart))
+                continue;
+
+            Optional<World> world = Sponge.getServer().getWorld(id.world);
+
+            if (!world.isPresent())
+                continue;
+
+            Vector3i position = new Vector3i(id.x, 0, id.z);
+
+            this.swept.add(id);
+
+            Optional<Chunk> chunk = world.get().loadChunk(position, false);
+
+            if (chunk.isPresent())
+                this.check(chunk.get(), entry.getValue());
+            else
+                this.record(id, entry.getValue(), remoteContainer -> false);
+
+            ++checks;
+        }
+    }
+
+    private void check(Chunk chunk, Map<UUID, Set<RemoteContainer>> links) {
+        Vector3i position = chunk.getPosition();
+        Map<RemoteContainer, Boolean> checked = new HashMap<>();
+
+        this.record(ChunkId.of(chunk.getWorld().getUniqueId(), position.getX(), position.getZ()), links,
+                remoteContainer -> checked.computeIfAbsent(remoteContainer, rc -> chunk.getTileEntity(rc.getBlockX(), rc.getBlockY(), rc.getBlockZ())
+                        .filter(TileEntityCarrier.class::isInstance)
+                        .isPresent()));
+    }
+
+    private void record(ChunkId id, Map<UUID, Set<RemoteContainer>> links, Predicate<RemoteContainer> valid) {
+        long now = System.currentTimeMillis();
+        Map<UUID, Map<RemoteContainer, LinkState>> chunkStates = new HashMap<>();
+
+        links.forEach((owner, remoteContainers) -> {
+            Map<RemoteContainer, LinkState> ownerStates = new HashMap<>();
+
+            for (RemoteContainer remoteContainer : remoteContainers)
+                ownerStates.put(remoteContainer, new LinkState(valid.test(remoteContainer), now));
+
+            chunkStates.put(owner, Collections.unmodifiableMap(ownerStates));
+        });
+
+        this.states.put(id, Collections.unmodifiableMap(chunkStates));
+    }
+
+    private static Map<ChunkId, Map<UUID, Set<RemoteContainer>>> byChunk(Map<UUID, Set<RemoteContainer>> links) {
+        Map<ChunkId, Map<UUID, Set<RemoteContainer>>> chunks = new LinkedHashMap<>();
+
+        links.forEach((owner, remoteContainers) -> {
+            for (RemoteContainer remoteContainer : remoteContainers)
+                chunks.computeIfAbsent(ChunkId.of(remoteContainer), id -> new HashMap<>())
+                        .computeIfAbsent(owner, uuid -> new HashSet<>())
+                        .add(remoteContainer);
+        });
+
+        return chunks;
+    }
+
+    private static void collectBroken(Map<RemoteContainer, LinkState> links, Set<RemoteContainer> broken) {
+        links.forEach((remoteContainer, state) -> {
+            if (!state.isValid())
+                broken.add(remoteContainer);
+        });
+    }
+
+    /**
+     * State of a link when it was last checked.
+     */
+    public static final class LinkState {
+        private final boolean valid;
+        private final long checkedAt;
+
+        LinkState(boolean valid, long checkedAt) {
+            this.valid = valid;
+            this.checkedAt = checkedAt;
+        }
+
+        /**
+         * Gets whether the linked block was a container.
+         */
+        public boolean isValid() {
+            return this.valid;
+        }
+
+        /**
+         * Gets when the link was checked, in milliseconds since epoch.
+         */
+        public long getCheckedAt() {
+            return this.checkedAt;
+        }
+    }
+
+    private static final class ChunkId {
+        private final UUID world;
+        private final int x;
+        private final int z;
+
+        private ChunkId(UUID world, int x, int z) {
+            this.world = world;
+            this.x = x;
+            this.z = z;
+        }
+
+        static ChunkId of(UUID world, int x, int z) {
+            return new ChunkId(world, x, z);
+        }
+
+        static ChunkId of(RemoteContainer remoteContainer) {
+            return new ChunkId(remoteContainer.getWorldUniqueId(),
+                    Positions.chunkOf(remoteContainer.getBlockX()), Positions.chunkOf(remoteContainer.getBlockZ()));
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+
+            if (!(obj instanceof ChunkId))
+                return false;
+
+            ChunkId other = (ChunkId) obj;
+
+            return this.x == other.x && this.z == other.z && this.world.equals(other.world);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * this.world.hashCode() + this.x) + this.z;
+        }
+    }
+}
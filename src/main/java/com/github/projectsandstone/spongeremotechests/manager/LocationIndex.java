@@ -0,0 +1,273 @@
+/**
+ *      SpongeRemoteChests - Access your containers remotely.
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2017 Sandstone <https://github.com/ProjectSandstone/SpongeRemoteChests/>
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.projectsandstone.spongeremotechests.manager;
+
+import com.github.projectsandstone.spongeremotechests.api.RemoteContainer;
+import com.github.projectsandstone.spongeremotechests.api.query.ContainerQuery;
+import com.github.projectsandstone.spongeremotechests.util.Positions;
+
+import org.spongepowered.api.world.Location;
+import org.spongepowered.api.world.World;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reverse index of links: world {@link UUID} to chunk to block position to unique ids of owners of
+ * the container at that position.
+ *
+ * All levels are concurrent maps, so the index may be read while it is changed. Changes of a world
+ * are applied while holding its entry of the world map, so an emptied bucket is never pruned while
+ * another thread adds to it.
+ */
+final class LocationIndex {
+
+    private final Map<UUID, Map<Long, Map<Long, Map<UUID, RemoteContainer>>>> worlds = new ConcurrentHashMap<>();
+
+    void add(UUID owner, RemoteContainer remoteContainer) {
+        long packed = Positions.pack(remoteContainer.getBlockX(), remoteContainer.getBlockY(), remoteContainer.getBlockZ());
+
+        this.worlds.compute(remoteContainer.getWorldUniqueId(), (uuid, chunks) -> {
+            if (chunks == null)
+                chunks = new ConcurrentHashMap<>();
+
+            chunks.computeIfAbsent(Positions.chunkKeyOf(packed), key -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(packed, key -> new ConcurrentHashMap<>())
+                    .put(owner, remoteContainer);
+
+            return chunks;
+        });
+    }
+
+    void remove(UUID owner, RemoteContainer remoteContainer) {
+        long packed = Positions.pack(remoteContainer.getBlockX(), remoteContainer.getBlockY(), remoteContainer.getBlockZ());
+
+        // Prune empty buckets
+        this.worlds.computeIfPresent(remoteContainer.getWorldUniqueId(), (uuid, chunks) -> {
+            chunks.computeIfPresent(Positions.chunkKeyOf(packed), (chunkKey, blocks) -> {
+                blocks.computeIfPresent(packed, (key, owners) -> {
+                    owners.remove(owner);
+                    return owners.isEmpty() ? null : owners;
+                });
+
+                return blocks.isEmpty() ? null : blocks;
+            });
+
+            return chunks.isEmpty() ? null : chunks;
+        });
+    }
+
+    /**
+     * Gets owners and links to the container at {@code location}.
+     *
+     * @param location Location of container.
+     * @return Copy of owners and links to the container at {@code location}.
+     */
+    Map<UUID, RemoteContainer> get(Location<World> location) {
+        return this.get(location.getExtent().getUniqueId(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
+    /**
+     * Gets owners and links to the container at {@code x}, {@code y}, {@code z} of {@code world}.
+     *
+     * @param world World unique id.
+     * @return Copy of owners and links to the container at the position.
+     */
+    Map<UUID, RemoteContainer> get(UUID world, int x, int y, int z) {
+        Map<Long, Map<UUID, RemoteContainer>> blocks = this.getChunk(world, Positions.chunkOf(x), Positions.chunkOf(z));
+
+        Map<UUID, RemoteContainer> owners = blocks.get(Positions.pack(x, y, z));
+
+        if (owners == null)
+            return Collections.emptyMap();
+
+        return new HashMap<>(owners);
+    }
+
+    /**
+     * Gets owners and links to all containers in chunk {@code chunkX}, {@code chunkZ} of {@code
+     * world}.
+     *
+     * @param world  World unique id.
+     * @param chunkX Chunk x.
+     * @param chunkZ Chunk z.
+     * @return Copy of owners and links in chunk.
+     */
+    Map<UUID, Set<RemoteContainer>> getInChunk(UUID world, int chunkX, int chunkZ) {
+        Map<Long, Map<UUID, RemoteContainer>> blocks = this.getChunk(world, chunkX, chunkZ);
+
+        if (blocks.isEmpty())
+            return Collections.emptyMap();
+
+        Map<UUID, Set<RemoteContainer>> result = new HashMap<>();
+
+        for (Map<UUID, RemoteContainer> owners : blocks.values()) {
+            for (Map.Entry<UUID, RemoteContainer> entry : owners.entrySet()) {
+                result.computeIfAbsent(entry.getKey(), uuid -> new HashSet<>()).add(entry.getValue());
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Finds owners and links to all containers which matches {@code query} using this index.
+     *
+     * @param query Query to match.
+     * @return Copy of owners and links which matches {@code query}, or null if {@code query}
+     * cannot be evaluated by this index (it does not restrict location of containers).
+     */
+    Map<UUID, Set<RemoteContainer>> find(ContainerQuery query) {
+        Map<UUID, Set<RemoteContainer>> candidates = this.candidates(query);
+
+        if (candidates == null)
+            return null;
+
+        Map<UUID, Set<RemoteContainer>> result = new HashMap<>();
+
+        candidates.forEach((owner, remoteContainers) -> {
+            for (RemoteContainer remoteContainer : remoteContainers) {
+                if (query.test(remoteContainer))
+                    result.computeIfAbsent(owner, uuid -> new HashSet<>()).add(remoteContainer);
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Gets a superset of containers which matches {@code query}, or null if {@code query} cannot be
+     * evaluated by this index.
+     */
+    private Map<UUID, Set<RemoteContainer>> candidates(ContainerQuery query) {
+        if (query instanceof ContainerQuery.At) {
+            ContainerQuery.At at = (ContainerQuery.At) query;
+            Map<UUID, Set<RemoteContainer>> result = new HashMap<>();
+
+            this.get(at.getWorld(), at.getX(), at.getY(), at.getZ())
+                    .forEach((owner, remoteContainer) -> result.computeIfAbsent(owner, uuid -> new HashSet<>()).add(remoteContainer));
+
+            return result;
+        }
+
+        if (query instanceof ContainerQuery.InWorld)
+            return this.collect(this.worlds.getOrDefault(((ContainerQuery.InWorld) query).getWorld(), Collections.emptyMap()).values());
+
+        if (query instanceof ContainerQuery.Within) {
+            ContainerQuery.Within within = (ContainerQuery.Within) query;
+            Map<Long, Map<Long, Map<UUID, RemoteContainer>>> chunks = this.worlds.getOrDefault(within.getWorld(), Collections.emptyMap());
+
+            int minChunkX = Positions.chunkOf(within.getMin().getX());
+            int maxChunkX = Positions.chunkOf(within.getMax().getX());
+            int minChunkZ = Positions.chunkOf(within.getMin().getZ());
+            int maxChunkZ = Positions.chunkOf(within.getMax().getZ());
+
+            // Large boxes are cheaper to evaluate by scanning all indexed chunks of the world
+            if ((long) (maxChunkX - minChunkX + 1) * (maxChunkZ - minChunkZ + 1) > chunks.size())
+                return this.collect(chunks.values());
+
+            List<Map<Long, Map<UUID, RemoteContainer>>> inBox = new ArrayList<>();
+
+            for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+                for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                    Map<Long, Map<UUID, RemoteContainer>> blocks = chunks.get(Positions.chunkKey(chunkX, chunkZ));
+
+                    if (blocks != null)
+                        inBox.add(blocks);
+                }
+            }
+
+            return this.collect(inBox);
+        }
+
+        if (query instanceof ContainerQuery.And) {
+            // Any indexed part restricts the result
+            for (ContainerQuery part : ((ContainerQuery.And) query).getQueries()) {
+                Map<UUID, Set<RemoteContainer>> candidates = this.candidates(part);
+
+                if (candidates != null)
+                    return candidates;
+            }
+
+            return null;
+        }
+
+        if (query instanceof ContainerQuery.Or) {
+            Map<UUID, Set<RemoteContainer>> result = new HashMap<>();
+
+            for (ContainerQuery part : ((ContainerQuery.Or) query).getQueries()) {
+                Map<UUID, Set<RemoteContainer>> candidates = this.candidates(part);
+
+                if (candidates == null)
+                    return null;
+
+                candidates.forEach((owner, remoteContainers) -> result.computeIfAbsent(owner, uuid -> new HashSet<>()).addAll(remoteContainers));
+            }
+
+            return result;
+        }
+
+        return null;
+    }
+
+    private Map<UUID, Set<RemoteContainer>> collect(Collection<Map<Long, Map<UUID, RemoteContainer>>> chunks) {
+        Map<UUID, Set<RemoteContainer>> result = new HashMap<>();
+
+        for (Map<Long, Map<UUID, RemoteContainer>> blocks : chunks) {
+            for (Map<UUID, RemoteContainer> owners : blocks.values()) {
+                for (Map.Entry<UUID, RemoteContainer> entry : owners.entrySet()) {
+                    result.computeIfAbsent(entry.getKey(), uuid -> new HashSet<>()).add(entry.getValue());
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private Map<Long, Map<UUID, RemoteContainer>> getChunk(UUID world, int chunkX, int chunkZ) {
+        Map<Long, Map<Long, Map<UUID, RemoteContainer>>> chunks = this.worlds.get(world);
+
+        if (chunks == null)
+            return Collections.emptyMap();
+
+        Map<Long, Map<UUID, RemoteContainer>> blocks = chunks.get(Positions.chunkKey(chunkX, chunkZ));
+
+        if (blocks == null)
+            return Collections.emptyMap();
+
+        return blocks;
+    }
+}
@@ -0,0 +1,356 @@
+/**
+ *      SpongeRemoteChests - Access your containers remotely.
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2017 Sandstone <https://github.com/ProjectSandstone/SpongeRemoteChests/>
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.projectsandstone.spongeremotechests.manager;
+
+import com.google.common.util.concurrent.Striped;
+
+import com.github.projectsandstone.spongeremotechests.api.RemoteContainer;
+import com.github.projectsandstone.spongeremotechests.api.Result;
+import com.github.projectsandstone.spongeremotechests.api.Results;
+import com.github.projectsandstone.spongeremotechests.api.query.ContainerQuery;
+import com.github.projectsandstone.spongeremotechests.util.MapSetView;
+
+import org.jetbrains.annotations.NotNull;
+import org.spongepowered.api.world.Location;
+import org.spongepowered.api.world.World;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Base of backends which keep all containers in memory and persist them on their own. All
+ * operations complete instantly and may be called from any thread.
+ *
+ * Containers of each owner are kept in a concurrent set, changes of an owner are serialized by a
+ * lock striped by owner, so changes of different owners do not wait for each other and readers
+ * never wait. {@link #getAllContainers()} returns a snapshot which is copied again only after a
+ * change.
+ *
+ * Implementations load containers with {@link #containersOf(UUID)} and call {@link #index()} when
+ * constructed, and are notified of each change through {@link #added(UUID, RemoteContainer)} and
+ * {@link #removed(UUID, RemoteContainer)}.
+ */
+public abstract class MemoryBackend extends Backend {
+
+    private static final int STRIPES = 64;
+
+    protected final Map<UUID, Set<RemoteContainer>> map = new ConcurrentHashMap<>();
+    private final LocationIndex locationIndex = new LocationIndex();
+
+    /**
+     * Owner to name to named containers, changed while holding the lock of owner.
+     */
+    private final Map<UUID, Map<String, Set<RemoteContainer>>> names = new ConcurrentHashMap<>();
+    private final Striped<Lock> locks = Striped.lock(STRIPES);
+
+    /**
+     * Incremented after each change, tells whether {@link #snapshot} is stale.
+     */
+    private final AtomicLong version = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    /**
+     * Gets the set of containers of {@code owner}, creating it if absent. Used to load containers
+     * before {@link #index()}.
+     */
+    protected final Set<RemoteContainer> containersOf(UUID owner) {
+        return this.map.computeIfAbsent(owner, uuid -> ConcurrentHashMap.newKeySet());
+    }
+
+    /**
+     * Indexes all loaded containers.
+     */
+    protected final void index() {
+        this.map.forEach((owner, remoteContainers) -> remoteContainers.forEach(remoteContainer -> {
+            this.locationIndex.add(owner, remoteContainer);
+            this.indexName(owner, remoteContainer);
+        }));
+    }
+
+    /**
+     * Called after {@code remoteContainer} is registered for {@code owner}, while holding the lock
+     * of {@code owner}, so changes of an owner are notified in order.
+     */
+    protected void added(UUID owner, RemoteContainer remoteContainer) {
+    }
+
+    /**
+     * Called after {@code remoteContainer} is unregistered from {@code owner}, while holding the
+     * lock of {@code owner}, so changes of an owner are notified in order.
+     */
+    protected void removed(UUID owner, RemoteContainer remoteContainer) {
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Boolean> hasAnyContainer(@NotNull UUID owner) {
+        Set<RemoteContainer> remoteContainers = this.map.get(owner);
+
+        return CompletableFuture.completedFuture(remoteContainers != null && !remoteContainers.isEmpty());
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Integer> countContainers(@NotNull UUID owner) {
+        Set<RemoteContainer> remoteContainers = this.map.get(owner);
+
+        return CompletableFuture.completedFuture(remoteContainers != null ? remoteContainers.size() : 0);
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Set<RemoteContainer>> getAllContainers(@NotNull UUID owner) {
+        Set<RemoteContainer> remoteContainers = this.map.get(owner);
+
+        if (remoteContainers == null)
+            return CompletableFuture.completedFuture(Collections.emptySet());
+
+        return CompletableFuture.completedFuture(Collections.unmodifiableSet(remoteContainers));
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Boolean> isOwner(@NotNull UUID owner, @NotNull RemoteContainer container) {
+        Set<RemoteContainer> remoteContainers = this.map.get(owner);
+
+        return CompletableFuture.completedFuture(remoteContainers != null && remoteContainers.contains(container));
+    }
+
+    /**
+     * Gets a snapshot of all containers, changes made after this call are not visible in returned
+     * map.
+     */
+    @Override
+    public @NotNull CompletableFuture<Map<UUID, Set<RemoteContainer>>> getAllContainers() {
+        long version = this.version.get();
+        Snapshot snapshot = this.snapshot;
+
+        if (snapshot == null || snapshot.version != version) {
+            Map<UUID, Set<RemoteContainer>> copy = new HashMap<>();
+
+            this.map.forEach((owner, remoteContainers) -> {
+                if (!remoteContainers.isEmpty())
+                    copy.put(owner, new HashSet<>(remoteContainers));
+            });
+
+            // Tagged with version read before copying, a change made while copying invalidates it
+            snapshot = new Snapshot(version, new MapSetView<>(copy));
+            this.snapshot = snapshot;
+        }
+
+        return CompletableFuture.completedFuture(snapshot.view);
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Map<UUID, RemoteContainer>> getLinksAt(@NotNull Location<World> location) {
+        return CompletableFuture.completedFuture(this.locationIndex.get(location));
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Map<UUID, Set<RemoteContainer>>> getLinksInChunk(@NotNull World world, int chunkX, int chunkZ) {
+        return CompletableFuture.completedFuture(this.locationIndex.getInChunk(world.getUniqueId(), chunkX, chunkZ));
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Boolean> register(@NotNull UUID owner, @NotNull RemoteContainer remoteContainer) {
+        return CompletableFuture.completedFuture(this.add(owner, remoteContainer, Integer.MAX_VALUE) == Results.SUCCESS);
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Result> register(@NotNull UUID owner, @NotNull RemoteContainer remoteContainer, int limit) {
+        return CompletableFuture.completedFuture(this.add(owner, remoteContainer, limit));
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Set<RemoteContainer>> getContainers(@NotNull UUID owner, @NotNull ContainerQuery query) {
+        return CompletableFuture.completedFuture(this.find(owner, query));
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Optional<RemoteContainer>> getContainer(@NotNull UUID owner, @NotNull String name) {
+        return CompletableFuture.completedFuture(this.named(owner, name).stream().findFirst());
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Boolean> unregister(@NotNull UUID owner, @NotNull ContainerQuery query) {
+        return CompletableFuture.completedFuture(this.remove(owner, this.find(owner, query)));
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Boolean> unregisterAll(@NotNull ContainerQuery query) {
+        Map<UUID, Set<RemoteContainer>> found = this.locationIndex.find(query);
+
+        if (found == null) {
+            found = new HashMap<>();
+
+            for (Map.Entry<UUID, Set<RemoteContainer>> entry : this.map.entrySet()) {
+                Set<RemoteContainer> matches = MemoryBackend.filter(entry.getValue(), query);
+
+                if (!matches.isEmpty())
+                    found.put(entry.getKey(), matches);
+            }
+        }
+
+        boolean any = false;
+
+        for (Map.Entry<UUID, Set<RemoteContainer>> entry : found.entrySet())
+            any |= this.remove(entry.getKey(), entry.getValue());
+
+        return CompletableFuture.completedFuture(any);
+    }
+
+    /**
+     * Finds containers of {@code owner} which matches {@code query}. Exact locations and names are
+     * looked up in indexes, other queries are tested against each container of {@code owner}.
+     */
+    private Set<RemoteContainer> find(UUID owner, ContainerQuery query) {
+        Set<RemoteContainer> remoteContainers = this.map.get(owner);
+
+        if (remoteContainers == null || remoteContainers.isEmpty())
+            return Collections.emptySet();
+
+        if (query instanceof ContainerQuery.At) {
+            ContainerQuery.At at = (ContainerQuery.At) query;
+            RemoteContainer remoteContainer = this.locationIndex.get(at.getWorld(), at.getX(), at.getY(), at.getZ()).get(owner);
+
+            return remoteContainer != null ? Collections.singleton(remoteContainer) : Collections.emptySet();
+        }
+
+        if (query instanceof ContainerQuery.Named)
+            return new HashSet<>(this.named(owner, ((ContainerQuery.Named) query).getName()));
+
+        return MemoryBackend.filter(remoteContainers, query);
+    }
+
+    private Set<RemoteContainer> named(UUID owner, String name) {
+        Map<String, Set<RemoteContainer>> ownerNames = this.names.get(owner);
+
+        if (ownerNames == null)
+            return Collections.emptySet();
+
+        return ownerNames.getOrDefault(name, Collections.emptySet());
+    }
+
+    private void indexName(UUID owner, RemoteContainer remoteContainer) {
+        remoteContainer.getName().ifPresent(name -> this.names.computeIfAbsent(owner, uuid -> new ConcurrentHashMap<>())
+                .computeIfAbsent(name, key -> ConcurrentHashMap.newKeySet())
+                .add(remoteContainer));
+    }
+
+    private void unindexName(UUID owner, RemoteContainer remoteContainer) {
+        remoteContainer.getName().ifPresent(name -> this.names.computeIfPresent(owner, (uuid, ownerNames) -> {
+            ownerNames.computeIfPresent(name, (key, named) -> {
+                named.remove(remoteContainer);
+                return named.isEmpty() ? null : named;
+            });
+
+            return ownerNames.isEmpty() ? null : ownerNames;
+        }));
+    }
+
+    private Result add(UUID owner, RemoteContainer remoteContainer, int limit) {
+        Lock lock = this.locks.get(owner);
+
+        lock.lock();
+
+        try {
+            Set<RemoteContainer> remoteContainers = this.containersOf(owner);
+
+            if (remoteContainers.contains(remoteContainer))
+                return Results.FAILED;
+
+            if (remoteContainers.size() >= limit)
+                return Results.LIMIT;
+
+            remoteContainers.add(remoteContainer);
+            this.locationIndex.add(owner, remoteContainer);
+            this.indexName(owner, remoteContainer);
+            this.version.incrementAndGet();
+            this.added(owner, remoteContainer);
+        } finally {
+            lock.unlock();
+        }
+
+        return Results.SUCCESS;
+    }
+
+    private boolean remove(UUID owner, Set<RemoteContainer> remoteContainers) {
+        Set<RemoteContainer> userContainers = this.map.get(owner);
+
+        if (userContainers == null || remoteContainers.isEmpty())
+            return false;
+
+        Lock lock = this.locks.get(owner);
+        boolean any = false;
+
+        lock.lock();
+
+        try {
+            for (RemoteContainer remoteContainer : remoteContainers) {
+                if (userContainers.remove(remoteContainer)) {
+                    this.locationIndex.remove(owner, remoteContainer);
+                    this.unindexName(owner, remoteContainer);
+                    this.version.incrementAndGet();
+                    this.removed(owner, remoteContainer);
+                    any = true;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        return any;
+    }
+
+    private static Set<RemoteContainer> filter(Set<RemoteContainer> remoteContainers, ContainerQuery query) {
+        Set<RemoteContainer> matches = new HashSet<>();
+
+        for (RemoteContainer remoteContainer : remoteContainers) {
+            if (query.test(remoteContainer))
+                matches.add(remoteContainer);
+        }
+
+        return matches;
+    }
+
+    private static final class Snapshot {
+        private final long version;
+        private final Map<UUID, Set<RemoteContainer>> view;
+
+        Snapshot(long version, Map<UUID, Set<RemoteContainer>> view) {
+            this.version = version;
+            this.view = view;
+        }
+    }
+
+}
@@ -0,0 +1,162 @@
+/**
+ *      SpongeRemoteChests - Access your containers remotely.
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2017 Sandstone <https://github.com/ProjectSandstone/SpongeRemoteChests/>
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.projectsandstone.spongeremotechests.manager;
+
+import com.github.projectsandstone.spongeremotechests.util.Resources;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A {@link Connection} borrowed from {@link SqlConnectionPool} which caches its {@link
+ * PreparedStatement PreparedStatements}.
+ *
+ * Statements returned by {@link #prepare(Resources.Type)} and {@link #prepare(String)} are owned by
+ * this connection and MUST NOT be closed by the caller (but their {@link java.sql.ResultSet
+ * ResultSets} must).
+ */
+final class PooledConnection implements AutoCloseable {
+
+    private static final int MAX_STATEMENTS = 64;
+
+    private final SqlConnectionPool pool;
+    private final Connection connection;
+    private final long createdAt;
+    private long lastUsed;
+    private final Map<String, PreparedStatement> statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75F, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+            if (this.size() > MAX_STATEMENTS) {
+                PooledConnection.closeQuietly(eldest.getValue());
+                return true;
+            }
+
+            return false;
+        }
+    };
+
+    PooledConnection(SqlConnectionPool pool, Connection connection, long createdAt) {
+        this.pool = pool;
+        this.connection = connection;
+        this.createdAt = createdAt;
+        this.lastUsed = createdAt;
+    }
+
+    Connection getConnection() {
+        return this.connection;
+    }
+
+    long getCreatedAt() {
+        return this.createdAt;
+    }
+
+    long getLastUsed() {
+        return this.lastUsed;
+    }
+
+    void setLastUsed(long lastUsed) {
+        this.lastUsed = lastUsed;
+    }
+
+    /**
+     * Gets the cached statement of {@code type} query or prepares a new one.
+     *
+     * @param type Query type.
+     * @return Statement with cleared parameters.
+     * @throws SQLException If statement could not be prepared.
+     */
+    PreparedStatement prepare(Resources.Type type) throws SQLException {
+        return this.prepare(Resources.getSqlQuery(type));
+    }
+
+    /**
+     * Gets the cached statement of {@code sql} or prepares a new one.
+     *
+     * @param sql Sql query.
+     * @return Statement with cleared parameters.
+     * @throws SQLException If statement could not be prepared.
+     */
+    PreparedStatement prepare(String sql) throws SQLException {
+        PreparedStatement preparedStatement = this.statements.get(sql);
+
+        if (preparedStatement == null || preparedStatement.isClosed()) {
+            preparedStatement = this.connection.prepareStatement(sql);
+            this.statements.put(sql, preparedStatement);
+        } else {
+            preparedStatement.clearParameters();
+        }
+
+        return preparedStatement;
+    }
+
+    /**
+     * Restores connection state after use.
+     *
+     * @return True if this connection can be reused.
+     */
+    boolean reset() {
+        try {
+            if (!this.connection.getAutoCommit()) {
+                this.connection.rollback();
+                this.connection.setAutoCommit(true);
+            }
+
+            return !this.connection.isClosed();
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    void destroy() {
+        this.statements.values().forEach(PooledConnection::closeQuietly);
+        this.statements.clear();
+
+        try {
+            this.connection.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    /**
+     * Gives this connection back to the pool.
+     */
+    @Override
+    public void close() {
+        this.pool.release(this);
+    }
+
+    private static void closeQuietly(PreparedStatement preparedStatement) {
+        try {
+            preparedStatement.close();
+        } catch (SQLException ignored) {
+        }
+    }
+}
@@ -0,0 +1,246 @@
+/**
+ *      SpongeRemoteChests - Access your containers remotely.
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2017 Sandstone <https://github.com/ProjectSandstone/SpongeRemoteChests/>
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.projectsandstone.spongeremotechests.manager;
+
+import com.flowpowered.math.vector.Vector3i;
+
+import com.github.projectsandstone.spongeremotechests.api.RemoteContainer;
+import com.github.projectsandstone.spongeremotechests.api.Result;
+import com.github.projectsandstone.spongeremotechests.api.Results;
+import com.github.projectsandstone.spongeremotechests.config.OpenConfig;
+import com.github.projectsandstone.spongeremotechests.util.Positions;
+
+import org.jetbrains.annotations.NotNull;
+import org.spongepowered.api.Sponge;
+import org.spongepowered.api.block.tileentity.carrier.TileEntityCarrier;
+import org.spongepowered.api.entity.living.player.Player;
+import org.spongepowered.api.event.Listener;
+import org.spongepowered.api.event.cause.Cause;
+import org.spongepowered.api.event.cause.NamedCause;
+import org.spongepowered.api.event.filter.cause.Root;
+import org.spongepowered.api.event.item.inventory.InteractInventoryEvent;
+import org.spongepowered.api.event.network.ClientConnectionEvent;
+import org.spongepowered.api.scheduler.Task;
+import org.spongepowered.api.world.ChunkTicketManager;
+import org.spongepowered.api.world.World;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Opens inventories of remote containers to players.
+ *
+ * Containers in loaded chunks are opened in next tick. Sponge API 6 has no asynchronous chunk
+ * loading, so opens of containers in unloaded chunks are queued and their chunks are loaded in main
+ * thread, at most {@link OpenConfig#getChunkLoadsPerTick()} per tick, instead of loading a chunk
+ * for each open in the tick it is requested. Each player has at most one queued open, a newer open
+ * replaces it. Chunks of opened containers are held by a loading ticket until the player closes the
+ * inventory, so they are not unloaded while the inventory is viewed.
+ *
+ * Must be registered as listener.
+ */
+public final class RemoteOpener {
+
+    private final Object plugin;
+    private final OpenConfig config;
+    private final Executor mainThread;
+    private final Cause cause;
+    private final Task task;
+
+    // Accessed only in main thread
+    private final Deque<Request> queue = new ArrayDeque<>();
+    private final Map<UUID, Request> queued = new HashMap<>();
+    private final Map<UUID, ChunkTicketManager.LoadingTicket> tickets = new HashMap<>();
+
+    /**
+     * Creates an opener. Must be created before worlds are loaded.
+     *
+     * @param plugin Plugin to schedule tasks and hold chunks.
+     * @param config Open configuration.
+     */
+    public RemoteOpener(Object plugin, OpenConfig config) {
+        this.plugin = plugin;
+        this.config = config;
+        this.mainThread = Sponge.getScheduler().createSyncExecutor(plugin);
+        this.cause = Cause.of(NamedCause.source(plugin));
+
+        // Tickets are held only while inventories are open, tickets restored with worlds are stale
+        Sponge.getServer().getChunkTicketManager().registerCallback(plugin,
+                (tickets, world) -> tickets.forEach(ChunkTicketManager.LoadingTicket::release));
+
+        this.task = Sponge.getScheduler().createTaskBuilder()
+                .intervalTicks(1)
+                .name("SpongeRemoteChests - Open containers")
+                .execute(this::tick)
+                .submit(plugin);
+    }
+
+    /**
+     * Opens inventory of {@code remoteContainer} to {@code player}. May be called in any thread,
+     * returned future is completed in main thread.
+     *
+     * @param player          Player to open inventory to.
+     * @param remoteContainer Container to open.
+     * @return Future completed with {@link Results#SUCCESS} if inventory was opened, {@link
+     * Results#NOT_FOUND} if container no longer exists or {@link Results#FAILED} if player left,
+     * the open was replaced by a newer open of the same player or the inventory could not be opened.
+     */
+    @NotNull
+    public CompletableFuture<Result> open(@NotNull Player player, @NotNull RemoteContainer remoteContainer) {
+        Request request = new Request(player.getUniqueId(), remoteContainer);
+
+        this.mainThread.execute(() -> this.request(request));
+
+        return request.future;
+    }
+
+    /**
+     * Stops opening containers and releases all held chunks.
+     */
+    public void close() {
+        this.task.cancel();
+
+        this.queued.values().forEach(request -> request.future.complete(Results.FAILED));
+        this.queued.clear();
+        this.queue.clear();
+
+        this.tickets.values().forEach(ChunkTicketManager.LoadingTicket::release);
+        this.tickets.clear();
+    }
+
+    @Listener
+    public void inventoryClose(InteractInventoryEvent.Close event, @Root Player player) {
+        this.release(player.getUniqueId());
+    }
+
+    @Listener
+    public void disconnect(ClientConnectionEvent.Disconnect event, @Root Player player) {
+        this.release(player.getUniqueId());
+    }
+
+    private void request(Request request) {
+        // A newer open replaces the queued one, also when it is opened immediately
+        Request replaced = this.queued.remove(request.player);
+
+        if (replaced != null) {
+            this.queue.remove(replaced);
+            replaced.future.complete(Results.FAILED);
+        }
+
+        Optional<World> world = Sponge.getServer().getWorld(request.remoteContainer.getWorldUniqueId());
+
+        if (world.isPresent() && world.get().getChunk(RemoteOpener.chunkOf(request.remoteContainer)).isPresent()) {
+            request.future.complete(this.open(request));
+            return;
+        }
+
+        this.queued.put(request.player, request);
+        this.queue.add(request);
+    }
+
+    private void tick() {
+        int loads = 0;
+
+        while (loads < this.config.getChunkLoadsPerTick() && !this.queue.isEmpty()) {
+            Request request = this.queue.poll();
+
+            this.queued.remove(request.player);
+            request.future.complete(this.open(request));
+            ++loads;
+        }
+    }
+
+    private Result open(Request request) {
+        Optional<Player> player = Sponge.getServer().getPlayer(request.player);
+
+        if (!player.isPresent())
+            return Results.FAILED;
+
+        RemoteContainer remoteContainer = request.remoteContainer;
+        Optional<World> world = Sponge.getServer().getWorld(remoteContainer.getWorldUniqueId());
+
+        if (!world.isPresent())
+            return Results.NOT_FOUND;
+
+        Vector3i chunk = RemoteOpener.chunkOf(remoteContainer);
+        ChunkTicketManager.LoadingTicket ticket = Sponge.getServer().getChunkTicketManager()
+                .createTicket(this.plugin, world.get())
+                .orElse(null);
+
+        if (ticket != null)
+            ticket.forceChunk(chunk);
+
+        Optional<TileEntityCarrier> carrier = world.get().loadChunk(chunk, false)
+                .flatMap(loaded -> world.get().getTileEntity(remoteContainer.getBlockX(), remoteContainer.getBlockY(), remoteContainer.getBlockZ()))
+                .filter(TileEntityCarrier.class::isInstance)
+                .map(TileEntityCarrier.class::cast);
+
+        if (!carrier.isPresent() || !player.get().openInventory(carrier.get().getInventory(), this.cause).isPresent()) {
+            if (ticket != null)
+                ticket.release();
+
+            return carrier.isPresent() ? Results.FAILED : Results.NOT_FOUND;
+        }
+
+        // Opening usually closes the previous inventory, which already released its ticket
+        this.release(request.player);
+
+        if (ticket != null)
+            this.tickets.put(request.player, ticket);
+
+        return Results.SUCCESS;
+    }
+
+    private void release(UUID player) {
+        ChunkTicketManager.LoadingTicket ticket = this.tickets.remove(player);
+
+        if (ticket != null)
+            ticket.release();
+    }
+
+    private static Vector3i chunkOf(RemoteContainer remoteContainer) {
+        return new Vector3i(Positions.chunkOf(remoteContainer.getBlockX()), 0, Positions.chunkOf(remoteContainer.getBlockZ()));
+    }
+
+    private static final class Request {
+        private final UUID player;
+        private final RemoteContainer remoteContainer;
+        private final CompletableFuture<Result> future = new CompletableFuture<>();
+
+        Request(UUID player, RemoteContainer remoteContainer) {
+            this.player = player;
+            this.remoteContainer = remoteContainer;
+        }
+    }
+}
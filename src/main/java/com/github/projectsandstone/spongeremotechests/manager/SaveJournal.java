@@ -0,0 +1,304 @@
+/**
+ *      SpongeRemoteChests - Access your containers remotely.
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2017 Sandstone <https://github.com/ProjectSandstone/SpongeRemoteChests/>
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.projectsandstone.spongeremotechests.manager;
+
+import com.google.common.base.Charsets;
+
+import com.github.projectsandstone.spongeremotechests.api.RemoteContainer;
+import com.github.projectsandstone.spongeremotechests.api.factory.RemoteContainerFactory;
+
+import org.slf4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Append-only journal of changes made to containers. Each change is a line of tab separated
+ * fields:
+ *
+ * <pre>
+ * +  owner  world  x  y  z  [name]
+ * -  owner  world  x  y  z
+ * </pre>
+ *
+ * Journal is split in files named {@code journal-<sequence>.log}, a new file is started on each
+ * {@link #rotate() rotation}, so files of changes which were already saved can be deleted.
+ *
+ * Changes may be appended from any thread, lines are written one at time.
+ */
+final class SaveJournal implements Closeable {
+
+    private static final String PREFIX = "journal-";
+    private static final String SUFFIX = ".log";
+    private static final char ADD = '+';
+    private static final char REMOVE = '-';
+
+    private final Path directory;
+    private long sequence;
+    private BufferedWriter writer;
+
+    SaveJournal(Path directory) throws IOException {
+        this.directory = directory;
+
+        List<Path> files = SaveJournal.list(directory);
+
+        this.sequence = files.isEmpty() ? 0 : SaveJournal.sequenceOf(files.get(files.size() - 1));
+        this.writer = this.open(++this.sequence);
+    }
+
+    /**
+     * Appends the addition of {@code remoteContainer} to {@code owner} containers. Line is written
+     * to the file before this method returns, so it is not lost if the server process crashes.
+     */
+    synchronized void add(UUID owner, RemoteContainer remoteContainer) throws IOException {
+        this.append(ADD, owner, remoteContainer);
+    }
+
+    /**
+     * Appends the removal of {@code remoteContainer} from {@code owner} containers.
+     */
+    synchronized void remove(UUID owner, RemoteContainer remoteContainer) throws IOException {
+        this.append(REMOVE, owner, remoteContainer);
+    }
+
+    /**
+     * Starts a new journal file.
+     *
+     * @return All files before the new file, which may be deleted once all changes made before
+     * this call are saved.
+     */
+    synchronized List<Path> rotate() throws IOException {
+        this.writer.close();
+
+        List<Path> previous = SaveJournal.list(this.directory);
+
+        this.writer = this.open(++this.sequence);
+
+        return previous;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        this.writer.close();
+    }
+
+    private BufferedWriter open(long sequence) throws IOException {
+        return Files.newBufferedWriter(this.directory.resolve(PREFIX + sequence + SUFFIX), Charsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void append(char operation, UUID owner, RemoteContainer remoteContainer) throws IOException {
+        StringBuilder line = new StringBuilder();
+
+        line.append(operation)
+                .append('\t').append(owner)
+                .append('\t').append(remoteContainer.getWorldUniqueId())
+                .append('\t').append(remoteContainer.getBlockX())
+                .append('\t').append(remoteContainer.getBlockY())
+                .append('\t').append(remoteContainer.getBlockZ());
+
+        if (operation == ADD && remoteContainer.getName().isPresent())
+            line.append('\t').append(SaveJournal.escape(remoteContainer.getName().get()));
+
+        line.append('\n');
+
+        this.writer.write(line.toString());
+        this.writer.flush();
+    }
+
+    /**
+     * Lists journal files of {@code directory} in order of sequence.
+     */
+    static List<Path> list(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path path : stream) {
+                if (SaveJournal.sequenceOf(path) >= 0)
+                    files.add(path);
+            }
+        }
+
+        files.sort(Comparator.comparingLong(SaveJournal::sequenceOf));
+
+        return files;
+    }
+
+    /**
+     * Replays all changes of journal {@code file} in {@code consumer}. Worlds are not resolved, so
+     * changes of containers of worlds which are not loaded are replayed too. Malformed lines and a
+     * last line without line terminator (partially written before a crash, even if it parses) are
+     * skipped.
+     *
+     * @return Number of skipped lines.
+     */
+    static int replay(Path file, Logger logger, Consumer consumer) throws IOException {
+        boolean terminated = SaveJournal.endsWithNewLine(file);
+
+        try (BufferedReader reader = Files.newBufferedReader(file, Charsets.UTF_8)) {
+            String line;
+            String next = reader.readLine();
+            int number = 0;
+            int skipped = 0;
+
+            while ((line = next) != null) {
+                next = reader.readLine();
+                ++number;
+
+                if (next == null && !terminated) {
+                    logger.warn("Skipping unterminated last line " + number + " of journal '" + file + "'.");
+                    ++skipped;
+                    continue;
+                }
+
+                if (line.isEmpty())
+                    continue;
+
+                String[] fields = line.split("\t", 7);
+
+                if (fields.length < 6 || fields[0].length() != 1 || (fields[0].charAt(0) != ADD && fields[0].charAt(0) != REMOVE)) {
+                    logger.warn("Skipping malformed line " + number + " of journal '" + file + "'.");
+                    ++skipped;
+                    continue;
+                }
+
+                UUID owner;
+                UUID worldUuid;
+                int x;
+                int y;
+                int z;
+
+                try {
+                    owner = UUID.fromString(fields[1]);
+                    worldUuid = UUID.fromString(fields[2]);
+                    x = Integer.parseInt(fields[3]);
+                    y = Integer.parseInt(fields[4]);
+                    z = Integer.parseInt(fields[5]);
+                } catch (IllegalArgumentException e) {
+                    logger.warn("Skipping malformed line " + number + " of journal '" + file + "'.");
+                    ++skipped;
+                    continue;
+                }
+
+                String name = fields.length == 7 ? SaveJournal.unescape(fields[6]) : null;
+                RemoteContainer remoteContainer = RemoteContainerFactory.createChest(name, worldUuid, x, y, z);
+
+                if (fields[0].charAt(0) == ADD)
+                    consumer.add(owner, remoteContainer);
+                else
+                    consumer.remove(owner, remoteContainer);
+            }
+
+            return skipped;
+        }
+    }
+
+    private static boolean endsWithNewLine(Path file) throws IOException {
+        try (SeekableByteChannel channel = Files.newByteChannel(file, StandardOpenOption.READ)) {
+            if (channel.size() == 0)
+                return true;
+
+            ByteBuffer last = ByteBuffer.allocate(1);
+
+            channel.position(channel.size() - 1);
+
+            return channel.read(last) == 1 && last.get(0) == '\n';
+        }
+    }
+
+    private static long sequenceOf(Path path) {
+        String name = path.getFileName().toString();
+
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return -1;
+        }
+    }
+
+    private static String escape(String name) {
+        StringBuilder builder = new StringBuilder(name.length());
+
+        for (char c : name.toCharArray()) {
+            switch (c) {
+                case '\\': builder.append("\\\\"); break;
+                case '\t': builder.append("\\t"); break;
+                case '\n': builder.append("\\n"); break;
+                case '\r': builder.append("\\r"); break;
+                default: builder.append(c);
+            }
+        }
+
+        return builder.toString();
+    }
+
+    private static String unescape(String name) {
+        StringBuilder builder = new StringBuilder(name.length());
+
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+
+            if (c != '\\' || i + 1 == name.length()) {
+                builder.append(c);
+                continue;
+            }
+
+            char next = name.charAt(++i);
+
+            switch (next) {
+                case 't': builder.append('\t'); break;
+                case 'n': builder.append('\n'); break;
+                case 'r': builder.append('\r'); break;
+                default: builder.append(next);
+            }
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Consumer of replayed changes.
+     */
+    interface Consumer {
+        void add(UUID owner, RemoteContainer remoteContainer);
+
+        void remove(UUID owner, RemoteContainer remoteContainer);
+    }
+}
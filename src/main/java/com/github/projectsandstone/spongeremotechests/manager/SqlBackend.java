@@ -28,53 +28,77 @@
 package com.github.projectsandstone.spongeremotechests.manager;
 
 import com.flowpowered.math.vector.Vector3i;
-import com.github.jonathanxd.iutils.object.Lazy;
+
+import com.google.common.util.concurrent.Striped;
+
+import com.github.projectsandstone.spongeremotechests.api.OwnedContainer;
 import com.github.projectsandstone.spongeremotechests.api.RemoteContainer;
+import com.github.projectsandstone.spongeremotechests.api.Result;
+import com.github.projectsandstone.spongeremotechests.api.Results;
 import com.github.projectsandstone.spongeremotechests.api.factory.RemoteContainerFactory;
+import com.github.projectsandstone.spongeremotechests.api.query.ContainerQuery;
 import com.github.projectsandstone.spongeremotechests.config.DatabaseConfig;
+import com.github.projectsandstone.spongeremotechests.util.Positions;
 import com.github.projectsandstone.spongeremotechests.util.Resources;
 import com.github.projectsandstone.spongeremotechests.util.Resources.Type;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.spongepowered.api.Sponge;
-import org.spongepowered.api.entity.living.player.User;
 import org.spongepowered.api.service.sql.SqlService;
-import org.spongepowered.api.service.user.UserStorageService;
 import org.spongepowered.api.world.Location;
 import org.spongepowered.api.world.World;
 
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-import java.util.function.Predicate;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
 
 import javax.sql.DataSource;
 
 /**
- * Backend to a SQL {@link javax.sql.DataSource}. All calls are backed to SQL server asynchronously.
+ * Backend to a SQL {@link javax.sql.DataSource}. All calls are backed to SQL server asynchronously
+ * in the backend {@link Executor}. Failed statements are logged and complete the returned future
+ * exceptionally.
  */
 public class SqlBackend extends Backend {
 
+    private static final int BATCH_SIZE = 1000;
+    private static final int REGISTER_LOCK_STRIPES = 64;
+    private static final int CHUNKS_PER_QUERY = 32;
+    private static final String QUERY_CHUNKS = SqlBackend.queryChunks(CHUNKS_PER_QUERY);
+
     private final Logger logger;
-    private final Lazy<UserStorageService> service;
     private final DatabaseConfig databaseConfig;
     private final DataSource dataSource;
+    private final SqlConnectionPool pool;
+    private final Executor executor;
+    private final Striped<Lock> registerLocks = Striped.lock(REGISTER_LOCK_STRIPES);
 
-    public SqlBackend(Object plugin, Logger logger, DatabaseConfig databaseConfig) {
+    public SqlBackend(Object plugin, Logger logger, DatabaseConfig databaseConfig, Executor executor) {
         this.logger = logger;
         this.databaseConfig = databaseConfig;
+        this.executor = executor;
         SqlService sqlService = Sponge.getServiceManager().provide(SqlService.class).orElseThrow(NullPointerException::new);
 
         try {
@@ -89,192 +113,602 @@ public class SqlBackend extends Backend {
             e.printStackTrace();
         }
 
+        // Separate from table creation so tables created by older versions get it too
+        this.createIndex(Type.CONTAINERS_LOCATION_INDEX, "containers_owner_location",
+                "Failed to create unique location index of containers table (are there duplicate links?), concurrent registrations may duplicate links.");
+        this.createIndex(Type.CONTAINERS_WORLD_INDEX, "containers_world",
+                "Failed to create world index of containers table, location lookups will be slower.");
+        this.createIndex(Type.CONTAINERS_NAME_INDEX, "containers_owner_name",
+                "Failed to create name index of containers table, name lookups will be slower.");
 
-        this.service = Lazy.lazy(() -> {
-            Optional<UserStorageService> provide = Sponge.getServiceManager().provide(UserStorageService.class);
+        this.pool = new SqlConnectionPool(this.dataSource, this.databaseConfig.getPoolConfig());
+    }
 
-            if (!provide.isPresent())
-                throw new IllegalStateException("UserStorageService required too early!");
+    /**
+     * Creates index {@code name} with the statement of {@code type} unless the containers table
+     * already has it. Not all databases support {@code CREATE INDEX IF NOT EXISTS} (MySQL does not),
+     * so existing indexes are looked up in {@link DatabaseMetaData}.
+     */
+    private void createIndex(Type type, String name, String failure) {
+        try (Connection con = this.dataSource.getConnection()) {
+            if (SqlBackend.hasIndex(con, name))
+                return;
+
+            try (Statement stm = con.createStatement()) {
+                stm.execute(Resources.getSqlQuery(type));
+            }
+        } catch (SQLException e) {
+            this.logger.warn(failure, e);
+        }
+    }
 
-            return provide.get();
-        });
+    private static boolean hasIndex(Connection con, String name) throws SQLException {
+        DatabaseMetaData metaData = con.getMetaData();
+        String table = metaData.storesUpperCaseIdentifiers() ? "CONTAINERS" : "containers";
+
+        try (ResultSet set = metaData.getIndexInfo(con.getCatalog(), null, table, false, false)) {
+            while (set.next()) {
+                if (name.equalsIgnoreCase(set.getString("INDEX_NAME")))
+                    return true;
+            }
+        }
+
+        return false;
     }
 
     @Override
-    public @NotNull CompletableFuture<Boolean> hasAnyContainer(@NotNull User user) {
-        return CompletableFuture.supplyAsync(() -> {
-            try (Connection con = this.dataSource.getConnection();
-                 PreparedStatement preparedStatement = con.prepareStatement(Resources.getSqlQuery(Type.QUERY_USER))) {
+    public @NotNull CompletableFuture<Boolean> hasAnyContainer(@NotNull UUID owner) {
+        return BackendExecutors.supplyAsync(() -> {
+            try (PooledConnection con = this.pool.borrow()) {
+                PreparedStatement preparedStatement = con.prepare(Type.QUERY_USER);
 
-                preparedStatement.setString(1, user.getUniqueId().toString());
-                ResultSet set = preparedStatement.executeQuery();
+                preparedStatement.setString(1, owner.toString());
 
-                return set.next();
+                try (ResultSet set = preparedStatement.executeQuery()) {
+                    return set.next();
+                }
             } catch (SQLException e) {
-                e.printStackTrace();
+                this.logger.error("Query failed", e);
+                throw new CompletionException(e);
             }
+        }, this.executor);
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Set<RemoteContainer>> getAllContainers(@NotNull UUID owner) {
+        return this.query(Type.QUERY_USER, preparedStatement -> preparedStatement.setString(1, owner.toString()))
+                .thenApply(userSetMap -> userSetMap.getOrDefault(owner, Collections.emptySet()));
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Set<RemoteContainer>> getContainers(@NotNull UUID owner, @NotNull ContainerQuery query) {
+        SqlFilter filter = SqlFilter.of(query);
 
-            return false;
+        if (filter == null)
+            return super.getContainers(owner, query);
+
+        return this.query(Resources.getSqlQuery(Type.QUERY_USER) + " AND " + filter.getCondition(), preparedStatement -> {
+            preparedStatement.setString(1, owner.toString());
+            filter.bind(preparedStatement, 2);
+        }).thenApply(userSetMap -> userSetMap.getOrDefault(owner, Collections.emptySet()));
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Optional<RemoteContainer>> getContainer(@NotNull UUID owner, @NotNull String name) {
+        return this.query(Type.QUERY_NAME, preparedStatement -> {
+            preparedStatement.setString(1, owner.toString());
+            preparedStatement.setString(2, name);
+        }).thenApply(userSetMap -> userSetMap.getOrDefault(owner, Collections.emptySet()).stream().findFirst());
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Integer> countContainers(@NotNull UUID owner) {
+        return BackendExecutors.supplyAsync(() -> {
+            try (PooledConnection con = this.pool.borrow()) {
+                return SqlBackend.count(con, owner);
+            } catch (SQLException e) {
+                this.logger.error("Query failed", e);
+                throw new CompletionException(e);
+            }
+        }, this.executor);
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Boolean> isOwner(@NotNull UUID owner, @NotNull RemoteContainer container) {
+        return BackendExecutors.supplyAsync(() -> {
+            try (PooledConnection con = this.pool.borrow()) {
+                return SqlBackend.exists(con, owner, container);
+            } catch (SQLException e) {
+                this.logger.error("Query failed", e);
+                throw new CompletionException(e);
+            }
+        }, this.executor);
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Map<UUID, Set<RemoteContainer>>> getAllContainers() {
+        return this.query(Type.QUERY_ALL, preparedStatement -> {
         });
     }
 
+    /**
+     * Reads pages with keyset pagination on {@code id} ({@link Type#QUERY_PAGE}), a connection is
+     * borrowed only while reading each page and released before the page is consumed.
+     */
     @Override
-    public @NotNull CompletableFuture<Set<RemoteContainer>> getAllContainers(@NotNull User user) {
-        return this.query(user).thenApply(userSetMap -> userSetMap.getOrDefault(user, Collections.emptySet()));
+    public @NotNull CompletableFuture<Void> forEachContainer(int batchSize, @NotNull Consumer<List<OwnedContainer>> consumer) {
+        if (batchSize <= 0)
+            throw new IllegalArgumentException("Batch size must be positive.");
+
+        return BackendExecutors.runAsync(() -> {
+            int lastId = Integer.MIN_VALUE;
+            int read;
+
+            do {
+                List<OwnedContainer> page = new ArrayList<>(batchSize);
+                read = 0;
+
+                try (PooledConnection con = this.pool.borrow()) {
+                    PreparedStatement preparedStatement = con.prepare(Type.QUERY_PAGE);
+
+                    preparedStatement.setInt(1, lastId);
+                    preparedStatement.setInt(2, batchSize);
+
+                    try (ResultSet set = preparedStatement.executeQuery()) {
+                        while (set.next()) {
+                            ++read;
+                            lastId = set.getInt("id");
+
+                            OwnedContainer ownedContainer = this.read(set);
+
+                            if (ownedContainer != null)
+                                page.add(ownedContainer);
+                        }
+                    }
+                } catch (SQLException e) {
+                    throw new CompletionException(e);
+                }
+
+                if (!page.isEmpty())
+                    consumer.accept(page);
+
+            } while (read == batchSize);
+        }, this.executor);
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Map<UUID, RemoteContainer>> getLinksAt(@NotNull Location<World> location) {
+        return this.query(Type.QUERY_LOCATION, preparedStatement -> {
+            preparedStatement.setString(1, location.getExtent().getUniqueId().toString());
+            preparedStatement.setInt(2, location.getBlockX()); // x
+            preparedStatement.setInt(3, location.getBlockY()); // y
+            preparedStatement.setInt(4, location.getBlockZ()); // z
+        }).thenApply(userSetMap -> {
+            Map<UUID, RemoteContainer> links = new HashMap<>();
+
+            userSetMap.forEach((owner, remoteContainers) -> remoteContainers.forEach(remoteContainer -> links.put(owner, remoteContainer)));
+
+            return links;
+        });
     }
 
     @Override
-    public @NotNull CompletableFuture<Boolean> isOwner(@NotNull User user, @NotNull RemoteContainer container) {
-        return this.query(user).thenApply(userSetMap -> userSetMap.containsKey(user) && userSetMap.get(user).contains(container));
+    public @NotNull CompletableFuture<Map<UUID, Set<RemoteContainer>>> getLinksInChunk(@NotNull World world, int chunkX, int chunkZ) {
+        return this.query(Type.QUERY_CHUNK, preparedStatement -> {
+            preparedStatement.setString(1, world.getUniqueId().toString());
+            preparedStatement.setInt(2, chunkX << 4); // min x
+            preparedStatement.setInt(3, (chunkX << 4) + 15); // max x
+            preparedStatement.setInt(4, chunkZ << 4); // min z
+            preparedStatement.setInt(5, (chunkZ << 4) + 15); // max z
+        });
     }
 
     @Override
-    public @NotNull CompletableFuture<Map<User, Set<RemoteContainer>>> getAllContainers() {
-        return query(null);
+    public @NotNull CompletableFuture<Map<UUID, Set<RemoteContainer>>> getLinksInChunks(@NotNull World world, @NotNull Collection<Vector3i> chunks) {
+        if (chunks.isEmpty())
+            return CompletableFuture.completedFuture(Collections.emptyMap());
+
+        List<Vector3i> chunkList = new ArrayList<>(chunks);
+
+        return BackendExecutors.supplyAsync(() -> {
+            try (PooledConnection con = this.pool.borrow()) {
+                PreparedStatement preparedStatement = con.prepare(QUERY_CHUNKS);
+                Map<UUID, Set<RemoteContainer>> map = new HashMap<>();
+
+                for (int from = 0; from < chunkList.size(); from += CHUNKS_PER_QUERY) {
+                    preparedStatement.setString(1, world.getUniqueId().toString());
+
+                    for (int i = 0; i < CHUNKS_PER_QUERY; ++i) {
+                        // Last query is padded with its last chunk, so a single statement serves any number of chunks
+                        Vector3i chunk = chunkList.get(Math.min(from + i, chunkList.size() - 1));
+                        int index = 2 + i * 4;
+
+                        preparedStatement.setInt(index, chunk.getX() << 4); // min x
+                        preparedStatement.setInt(index + 1, (chunk.getX() << 4) + 15); // max x
+                        preparedStatement.setInt(index + 2, chunk.getZ() << 4); // min z
+                        preparedStatement.setInt(index + 3, (chunk.getZ() << 4) + 15); // max z
+                    }
+
+                    this.readAll(preparedStatement, map);
+                }
+
+                return map;
+            } catch (SQLException e) {
+                this.logger.error("Query failed", e);
+                throw new CompletionException(e);
+            }
+        }, this.executor);
     }
 
     @Override
-    public @NotNull CompletableFuture<Boolean> register(@NotNull User user, @NotNull RemoteContainer remoteContainer) {
-        return CompletableFuture.supplyAsync(() -> {
+    public @NotNull CompletableFuture<Boolean> register(@NotNull UUID owner, @NotNull RemoteContainer remoteContainer) {
+        return BackendExecutors.supplyAsync(() -> {
+
+            try (PooledConnection con = this.pool.borrow()) {
 
-            Location<World> worldLocation = remoteContainer.getLocation();
+                if (SqlBackend.exists(con, owner, remoteContainer))
+                    return Boolean.FALSE;
 
-            try (Connection con = this.dataSource.getConnection();
-                 PreparedStatement preparedStatement = con.prepareStatement(Resources.getSqlQuery(Type.QUERY_CONTAINER))) {
+                PreparedStatement create = con.prepare(Type.INSERT_CONTAINER);
 
-                preparedStatement.setString(1, user.getUniqueId().toString());
-                preparedStatement.setString(2, worldLocation.getExtent().getUniqueId().toString());
-                preparedStatement.setInt(3, worldLocation.getBlockX()); // x
-                preparedStatement.setInt(4, worldLocation.getBlockY()); // y
-                preparedStatement.setInt(5, worldLocation.getBlockZ()); // z
+                SqlBackend.setContainer(create, owner, remoteContainer);
 
-                if (preparedStatement.executeQuery().next())
+                if (create.executeUpdate() > 0)
+                    return Boolean.TRUE;
+                else
                     return Boolean.FALSE;
 
-                try(PreparedStatement create = con.prepareStatement(Resources.getSqlQuery(Type.INSERT_CONTAINER))) {
+            } catch (SQLException e) {
+                this.logger.error("Query failed", e);
+                throw new CompletionException(e);
+            }
+        }, this.executor);
+
+    }
 
-                    create.setString(1, user.getUniqueId().toString());
-                    preparedStatement.setString(2, worldLocation.getExtent().getUniqueId().toString());
+    /**
+     * Counts, checks and inserts in a single transaction. Registrations of an owner are serialized
+     * by a lock striped by owner, so the limit holds for all registrations made by this server.
+     */
+    @Override
+    public @NotNull CompletableFuture<Result> register(@NotNull UUID owner, @NotNull RemoteContainer remoteContainer, int limit) {
+        return BackendExecutors.supplyAsync(() -> {
+            Lock lock = this.registerLocks.get(owner);
 
-                    Optional<String> name = remoteContainer.getName();
+            lock.lock();
 
-                    if (name.isPresent())
-                        preparedStatement.setString(3, name.get());
-                    else
-                        preparedStatement.setNull(3, Types.VARCHAR);
+            try (PooledConnection con = this.pool.borrow()) {
+                con.getConnection().setAutoCommit(false);
 
-                    preparedStatement.setInt(4, worldLocation.getBlockX()); // x
-                    preparedStatement.setInt(5, worldLocation.getBlockY()); // y
-                    preparedStatement.setInt(6, worldLocation.getBlockZ()); // z
+                // Uncommitted transaction is rolled back when connection is released
+                if (SqlBackend.exists(con, owner, remoteContainer))
+                    return Results.FAILED;
 
-                    if (preparedStatement.executeUpdate() > 0)
-                        return Boolean.TRUE;
-                    else
-                        return Boolean.FALSE;
-                }
+                if (SqlBackend.count(con, owner) >= limit)
+                    return Results.LIMIT;
+
+                PreparedStatement create = con.prepare(Type.INSERT_CONTAINER);
+
+                SqlBackend.setContainer(create, owner, remoteContainer);
 
+                if (create.executeUpdate() <= 0)
+                    return Results.FAILED;
+
+                con.getConnection().commit();
+
+                return Results.SUCCESS;
             } catch (SQLException e) {
                 this.logger.error("Query failed", e);
+                throw new CompletionException(e);
+            } finally {
+                lock.unlock();
             }
+        }, this.executor);
+    }
 
-            return Boolean.FALSE;
-        });
+    /**
+     * Registers all containers in a single transaction using a batch insert. Containers already
+     * registered are looked up once per owner and skipped.
+     */
+    @Override
+    public @NotNull CompletableFuture<Map<UUID, Map<RemoteContainer, Boolean>>> registerAll(@NotNull Map<UUID, ? extends Collection<RemoteContainer>> containers) {
+        return BackendExecutors.supplyAsync(() -> {
+            Map<UUID, Map<RemoteContainer, Boolean>> results = new LinkedHashMap<>();
+
+            containers.forEach((owner, remoteContainers) -> {
+                Map<RemoteContainer, Boolean> userResults = results.computeIfAbsent(owner, u -> new LinkedHashMap<>());
+
+                for (RemoteContainer remoteContainer : remoteContainers)
+                    userResults.put(remoteContainer, Boolean.FALSE);
+            });
+
+            List<Map.Entry<RemoteContainer, Boolean>> inserted = new ArrayList<>();
+
+            try (PooledConnection con = this.pool.borrow()) {
+                con.getConnection().setAutoCommit(false);
+
+                PreparedStatement create = con.prepare(Type.INSERT_CONTAINER);
+                int batched = 0;
+
+                for (Map.Entry<UUID, Map<RemoteContainer, Boolean>> userEntry : results.entrySet()) {
+                    UUID owner = userEntry.getKey();
+                    Map<UUID, Set<Long>> existing = SqlBackend.queryPositions(con, owner);
 
+                    for (Map.Entry<RemoteContainer, Boolean> entry : userEntry.getValue().entrySet()) {
+                        RemoteContainer remoteContainer = entry.getKey();
+
+                        if (existing.getOrDefault(remoteContainer.getWorldUniqueId(), Collections.emptySet())
+                                .contains(Positions.pack(remoteContainer.getBlockX(), remoteContainer.getBlockY(), remoteContainer.getBlockZ())))
+                            continue;
+
+                        SqlBackend.setContainer(create, owner, entry.getKey());
+                        create.addBatch();
+                        inserted.add(entry);
+
+                        if (++batched % BATCH_SIZE == 0)
+                            create.executeBatch();
+                    }
+                }
+
+                if (batched % BATCH_SIZE != 0)
+                    create.executeBatch();
+
+                con.getConnection().commit();
+
+                for (Map.Entry<RemoteContainer, Boolean> entry : inserted)
+                    entry.setValue(Boolean.TRUE);
+
+                return results;
+            } catch (SQLException e) {
+                this.logger.error("Batch registration failed, no container was registered.", e);
+                throw new CompletionException(e);
+            }
+        }, this.executor);
     }
 
+    /**
+     * Typed queries are translated to a single {@code DELETE} statement, other queries are tested
+     * against each container of {@code owner}, deleting matching containers one by one in a single
+     * transaction.
+     */
     @Override
-    public @NotNull CompletableFuture<Boolean> unregister(@NotNull User user, @NotNull Predicate<RemoteContainer> predicate) {
-        return this.getAllContainers(user).thenCompose(remoteContainers -> CompletableFuture.supplyAsync(() -> {
-            try (Connection con = this.dataSource.getConnection()) {
-                con.setAutoCommit(false);
+    public @NotNull CompletableFuture<Boolean> unregister(@NotNull UUID owner, @NotNull ContainerQuery query) {
+        SqlFilter filter = SqlFilter.of(query);
+
+        if (filter != null)
+            return this.update(Resources.getSqlQuery(Type.DELETE_USER) + " AND " + filter.getCondition(), preparedStatement -> {
+                preparedStatement.setString(1, owner.toString());
+                filter.bind(preparedStatement, 2);
+            });
+
+        return this.getAllContainers(owner).thenCompose(remoteContainers -> BackendExecutors.supplyAsync(() -> {
+            try (PooledConnection con = this.pool.borrow()) {
+                con.getConnection().setAutoCommit(false);
                 boolean any = false;
 
-                try(PreparedStatement preparedStatement = con.prepareStatement(Resources.getSqlQuery(Type.DELETE_CONTAINER))) {
-                    for (RemoteContainer remoteContainer : remoteContainers) {
+                PreparedStatement preparedStatement = con.prepare(Type.DELETE_CONTAINER);
 
-                        if (predicate.test(remoteContainer)) {
+                for (RemoteContainer remoteContainer : remoteContainers) {
 
-                            Location<World> worldLocation = remoteContainer.getLocation();
+                    if (query.test(remoteContainer)) {
 
-                            preparedStatement.setString(1, user.getUniqueId().toString());
-                            preparedStatement.setString(2, worldLocation.getExtent().getUniqueId().toString());
-                            preparedStatement.setInt(3, worldLocation.getBlockX()); // x
-                            preparedStatement.setInt(4, worldLocation.getBlockY()); // y
-                            preparedStatement.setInt(5, worldLocation.getBlockZ()); // z
+                        SqlBackend.setLocation(preparedStatement, owner, remoteContainer);
 
-                            any |= preparedStatement.executeUpdate() > 0;
+                        any |= preparedStatement.executeUpdate() > 0;
 
-                        }
                     }
-
                 }
 
-                con.commit();
+                con.getConnection().commit();
 
                 return any;
 
             } catch (SQLException e) {
-                e.printStackTrace();
+                this.logger.error("Query failed", e);
+                throw new CompletionException(e);
             }
+        }, this.executor));
+    }
 
-            return Boolean.FALSE;
-        }));
+    @Override
+    public @NotNull CompletableFuture<Boolean> unregisterAll(@NotNull ContainerQuery query) {
+        SqlFilter filter = SqlFilter.of(query);
+
+        if (filter == null)
+            return super.unregisterAll(query);
+
+        return this.update(Resources.getSqlQuery(Type.DELETE_ALL) + " WHERE " + filter.getCondition(),
+                preparedStatement -> filter.bind(preparedStatement, 1));
     }
 
-    private @NotNull CompletableFuture<Map<User, Set<RemoteContainer>>> query(User user) {
-        return CompletableFuture.supplyAsync(() -> {
-            try (Connection con = this.dataSource.getConnection();
-                 PreparedStatement preparedStatement = con.prepareStatement(Resources.getSqlQuery(user != null ? Type.QUERY_USER : Type.QUERY_ALL))) {
+    @Override
+    public void close() {
+        this.pool.close();
+    }
 
-                if (user != null) {
-                    preparedStatement.setString(1, user.getUniqueId().toString());
-                }
+    private @NotNull CompletableFuture<Map<UUID, Set<RemoteContainer>>> query(Type type, StatementBinder binder) {
+        return this.query(Resources.getSqlQuery(type), binder);
+    }
 
-                ResultSet set = preparedStatement.executeQuery();
+    private @NotNull CompletableFuture<Map<UUID, Set<RemoteContainer>>> query(String sql, StatementBinder binder) {
+        return BackendExecutors.supplyAsync(() -> {
+            try (PooledConnection con = this.pool.borrow()) {
+                PreparedStatement preparedStatement = con.prepare(sql);
 
-                Map<User, Set<RemoteContainer>> map = new HashMap<>();
+                binder.bind(preparedStatement);
 
+                Map<UUID, Set<RemoteContainer>> map = new HashMap<>();
 
-                while (set.next()) {
-                    int id = set.getInt("id");
-                    UUID ownerUuid = UUID.fromString(set.getString("owner"));
-                    UUID worldUuid = UUID.fromString(set.getString("world"));
-                    String name = set.getString("name");
-                    int x = set.getInt("x");
-                    int y = set.getInt("y");
-                    int z = set.getInt("z");
+                this.readAll(preparedStatement, map);
 
-                    Optional<World> world = Sponge.getServer().getWorld(worldUuid);
+                return map;
+            } catch (SQLException e) {
+                this.logger.error("Query failed", e);
+                throw new CompletionException(e);
+            }
+        }, this.executor);
+    }
 
-                    if (!world.isPresent()) {
-                        this.logger.info("Cannot find world with uuid '" + worldUuid.toString() + "', skipping entry id '" + id + "'.");
-                        continue;
-                    }
+    /**
+     * Executes {@code preparedStatement} and adds containers of all rows to {@code map}.
+     */
+    private void readAll(PreparedStatement preparedStatement, Map<UUID, Set<RemoteContainer>> map) throws SQLException {
+        try (ResultSet set = preparedStatement.executeQuery()) {
+            while (set.next()) {
+                OwnedContainer ownedContainer = this.read(set);
 
-                    Optional<User> owner = this.service.get().get(ownerUuid);
+                if (ownedContainer == null)
+                    continue;
 
-                    if (!owner.isPresent()) {
-                        this.logger.info("Cannot find user with uuid '" + ownerUuid.toString() + "', skipping entry id '" + id + "'.");
-                        continue;
-                    }
+                if (!map.containsKey(ownedContainer.getOwner()))
+                    map.put(ownedContainer.getOwner(), new HashSet<>());
 
-                    if (!map.containsKey(owner.get()))
-                        map.put(owner.get(), new HashSet<>());
+                map.get(ownedContainer.getOwner())
+                        .add(ownedContainer.getContainer());
+            }
+        }
+    }
 
-                    Location<World> location = world.get().getLocation(new Vector3i(x, y, z));
+    /**
+     * Builds a query of containers in {@code chunks} chunks of a world, bound like {@link
+     * Type#QUERY_CHUNK} with the x and z ranges repeated for each chunk.
+     */
+    private static String queryChunks(int chunks) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM `containers` WHERE `world` = ? AND (");
 
-                    map.get(owner.get())
-                            .add(RemoteContainerFactory.createChest(name, location));
-                }
+        for (int i = 0; i < chunks; ++i) {
+            if (i > 0)
+                sql.append(" OR ");
 
-                return map;
+            sql.append("(`x` BETWEEN ? AND ? AND `z` BETWEEN ? AND ?)");
+        }
+
+        return sql.append(")").toString();
+    }
+
+    /**
+     * Reads the container of current row of {@code set}.
+     *
+     * @return Container of current row, or null if world of the container cannot be found.
+     */
+    private @Nullable OwnedContainer read(ResultSet set) throws SQLException {
+        int id = set.getInt("id");
+        UUID ownerUuid = UUID.fromString(set.getString("owner"));
+        UUID worldUuid = UUID.fromString(set.getString("world"));
+        String name = set.getString("name");
+        int x = set.getInt("x");
+        int y = set.getInt("y");
+        int z = set.getInt("z");
+
+        if (!Sponge.getServer().getWorld(worldUuid).isPresent()) {
+            this.logger.info("Cannot find world with uuid '" + worldUuid.toString() + "', skipping entry id '" + id + "'.");
+            return null;
+        }
+
+        return new OwnedContainer(ownerUuid, RemoteContainerFactory.createChest(name, worldUuid, x, y, z));
+    }
+
+    /**
+     * Executes the update statement {@code sql}.
+     *
+     * @return {@link CompletableFuture} of a boolean that indicates if any row was affected.
+     */
+    private @NotNull CompletableFuture<Boolean> update(String sql, StatementBinder binder) {
+        return BackendExecutors.supplyAsync(() -> {
+            try (PooledConnection con = this.pool.borrow()) {
+                PreparedStatement preparedStatement = con.prepare(sql);
+
+                binder.bind(preparedStatement);
+
+                return preparedStatement.executeUpdate() > 0;
             } catch (SQLException e) {
-                e.printStackTrace();
+                this.logger.error("Query failed", e);
+                throw new CompletionException(e);
             }
+        }, this.executor);
+    }
 
-            return Collections.emptyMap();
-        });
+    /**
+     * Checks whether {@code owner} has a container registered at location of {@code
+     * remoteContainer} with a single point lookup ({@link Type#QUERY_CONTAINER}).
+     */
+    private static boolean exists(PooledConnection con, UUID owner, RemoteContainer remoteContainer) throws SQLException {
+        PreparedStatement preparedStatement = con.prepare(Type.QUERY_CONTAINER);
+
+        SqlBackend.setLocation(preparedStatement, owner, remoteContainer);
+
+        try (ResultSet set = preparedStatement.executeQuery()) {
+            return set.next();
+        }
     }
 
+    /**
+     * Counts containers of {@code owner} ({@link Type#COUNT_USER}).
+     */
+    private static int count(PooledConnection con, UUID owner) throws SQLException {
+        PreparedStatement preparedStatement = con.prepare(Type.COUNT_USER);
+
+        preparedStatement.setString(1, owner.toString());
+
+        try (ResultSet set = preparedStatement.executeQuery()) {
+            return set.next() ? set.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Queries positions of all containers of {@code owner}, mapped by world.
+     */
+    private static Map<UUID, Set<Long>> queryPositions(PooledConnection con, UUID owner) throws SQLException {
+        PreparedStatement preparedStatement = con.prepare(Type.QUERY_USER);
+        Map<UUID, Set<Long>> positions = new HashMap<>();
+
+        preparedStatement.setString(1, owner.toString());
+
+        try (ResultSet set = preparedStatement.executeQuery()) {
+            while (set.next()) {
+                positions.computeIfAbsent(UUID.fromString(set.getString("world")), uuid -> new HashSet<>())
+                        .add(Positions.pack(set.getInt("x"), set.getInt("y"), set.getInt("z")));
+            }
+        }
+
+        return positions;
+    }
+
+    /**
+     * Sets {@code owner}, {@code world}, {@code name}, {@code x}, {@code y} and {@code z}
+     * parameters (in this order) of {@code preparedStatement}.
+     */
+    private static void setContainer(PreparedStatement preparedStatement, UUID owner, RemoteContainer remoteContainer) throws SQLException {
+        preparedStatement.setString(1, owner.toString());
+        preparedStatement.setString(2, remoteContainer.getWorldUniqueId().toString());
+
+        Optional<String> name = remoteContainer.getName();
+
+        if (name.isPresent())
+            preparedStatement.setString(3, name.get());
+        else
+            preparedStatement.setNull(3, Types.VARCHAR);
+
+        preparedStatement.setInt(4, remoteContainer.getBlockX()); // x
+        preparedStatement.setInt(5, remoteContainer.getBlockY()); // y
+        preparedStatement.setInt(6, remoteContainer.getBlockZ()); // z
+    }
+
+    /**
+     * Sets {@code owner}, {@code world}, {@code x}, {@code y} and {@code z} parameters (in this
+     * order) of {@code preparedStatement} to location of {@code remoteContainer}.
+     */
+    private static void setLocation(PreparedStatement preparedStatement, UUID owner, RemoteContainer remoteContainer) throws SQLException {
+        preparedStatement.setString(1, owner.toString());
+        preparedStatement.setString(2, remoteContainer.getWorldUniqueId().toString());
+        preparedStatement.setInt(3, remoteContainer.getBlockX()); // x
+        preparedStatement.setInt(4, remoteContainer.getBlockY()); // y
+        preparedStatement.setInt(5, remoteContainer.getBlockZ()); // z
+    }
+
+    @FunctionalInterface
+    private interface StatementBinder {
+        void bind(PreparedStatement preparedStatement) throws SQLException;
+    }
 
 }
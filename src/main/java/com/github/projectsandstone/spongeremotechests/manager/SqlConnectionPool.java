@@ -0,0 +1,155 @@
+/**
+ *      SpongeRemoteChests - Access your containers remotely.
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2017 Sandstone <https://github.com/ProjectSandstone/SpongeRemoteChests/>
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.projectsandstone.spongeremotechests.manager;
+
+import com.github.projectsandstone.spongeremotechests.config.PoolConfig;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+/**
+ * Bounded pool of long-lived {@link PooledConnection PooledConnections} on top of a {@link
+ * DataSource}.
+ *
+ * Connections are kept open between operations so their {@link java.sql.PreparedStatement
+ * PreparedStatements} can be reused, connections older than {@link PoolConfig#getMaxLifetime()}
+ * are replaced and connections which were idle for a while are validated before being handed out.
+ */
+final class SqlConnectionPool implements AutoCloseable {
+
+    private static final long VALIDATION_INTERVAL = TimeUnit.SECONDS.toMillis(30);
+    private static final int VALIDATION_TIMEOUT = 2;
+
+    private final DataSource dataSource;
+    private final BlockingQueue<PooledConnection> idle;
+    private final Semaphore permits;
+    private final long connectionTimeout;
+    private final long maxLifetime;
+    private volatile boolean closed;
+
+    SqlConnectionPool(DataSource dataSource, PoolConfig poolConfig) {
+        int size = Math.max(1, poolConfig.getSize());
+
+        this.dataSource = dataSource;
+        this.idle = new ArrayBlockingQueue<>(size);
+        this.permits = new Semaphore(size, true);
+        this.connectionTimeout = poolConfig.getConnectionTimeout();
+        this.maxLifetime = TimeUnit.SECONDS.toMillis(poolConfig.getMaxLifetime());
+    }
+
+    /**
+     * Borrows a connection, the connection is given back to the pool when {@link
+     * PooledConnection#close() closed}.
+     *
+     * @return Borrowed connection.
+     * @throws SQLException If no connection was available after {@link
+     *                      PoolConfig#getConnectionTimeout()} or if a new connection could not be
+     *                      created.
+     */
+    PooledConnection borrow() throws SQLException {
+        if (this.closed)
+            throw new SQLException("Connection pool closed.");
+
+        try {
+            if (!this.permits.tryAcquire(this.connectionTimeout, TimeUnit.MILLISECONDS))
+                throw new SQLTimeoutException("No connection available after " + this.connectionTimeout + "ms.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection.", e);
+        }
+
+        try {
+            long now = System.currentTimeMillis();
+            PooledConnection pooledConnection;
+
+            while ((pooledConnection = this.idle.poll()) != null) {
+                if (this.isUsable(pooledConnection, now)) {
+                    pooledConnection.setLastUsed(now);
+                    return pooledConnection;
+                }
+
+                pooledConnection.destroy();
+            }
+
+            return new PooledConnection(this, this.dataSource.getConnection(), now);
+        } catch (SQLException | RuntimeException e) {
+            this.permits.release();
+            throw e;
+        }
+    }
+
+    void release(PooledConnection pooledConnection) {
+        try {
+            if (this.closed || !pooledConnection.reset() || !this.idle.offer(pooledConnection))
+                pooledConnection.destroy();
+        } finally {
+            this.permits.release();
+        }
+
+        // A connection could be returned while the pool was being closed.
+        if (this.closed)
+            this.destroyIdle();
+    }
+
+    @Override
+    public void close() {
+        this.closed = true;
+        this.destroyIdle();
+    }
+
+    private void destroyIdle() {
+        PooledConnection pooledConnection;
+
+        while ((pooledConnection = this.idle.poll()) != null)
+            pooledConnection.destroy();
+    }
+
+    private boolean isUsable(PooledConnection pooledConnection, long now) {
+        if (now - pooledConnection.getCreatedAt() >= this.maxLifetime)
+            return false;
+
+        Connection connection = pooledConnection.getConnection();
+
+        try {
+            if (connection.isClosed())
+                return false;
+
+            return now - pooledConnection.getLastUsed() < VALIDATION_INTERVAL
+                    || connection.isValid(VALIDATION_TIMEOUT);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+}
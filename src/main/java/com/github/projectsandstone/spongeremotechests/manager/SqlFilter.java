@@ -0,0 +1,154 @@
+/**
+ *      SpongeRemoteChests - Access your containers remotely.
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2017 Sandstone <https://github.com/ProjectSandstone/SpongeRemoteChests/>
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.projectsandstone.spongeremotechests.manager;
+
+import com.github.projectsandstone.spongeremotechests.api.query.ContainerQuery;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link ContainerQuery} translated to a SQL condition on {@code containers} table.
+ */
+final class SqlFilter {
+
+    private final String condition;
+    private final List<Object> parameters;
+
+    private SqlFilter(String condition, List<Object> parameters) {
+        this.condition = condition;
+        this.parameters = parameters;
+    }
+
+    /**
+     * Translates {@code query} to a SQL condition.
+     *
+     * @param query Query to translate.
+     * @return Translated query or null if {@code query} cannot be evaluated by SQL server.
+     */
+    static SqlFilter of(ContainerQuery query) {
+        List<Object> parameters = new ArrayList<>();
+        StringBuilder condition = new StringBuilder();
+
+        if (!SqlFilter.append(query, condition, parameters))
+            return null;
+
+        return new SqlFilter(condition.toString(), parameters);
+    }
+
+    private static boolean append(ContainerQuery query, StringBuilder condition, List<Object> parameters) {
+        if (query instanceof ContainerQuery.Named) {
+            condition.append("`name` = ?");
+            parameters.add(((ContainerQuery.Named) query).getName());
+            return true;
+        }
+
+        if (query instanceof ContainerQuery.At) {
+            ContainerQuery.At at = (ContainerQuery.At) query;
+
+            condition.append("(`world` = ? AND `x` = ? AND `y` = ? AND `z` = ?)");
+            parameters.add(at.getWorld().toString());
+            parameters.add(at.getX());
+            parameters.add(at.getY());
+            parameters.add(at.getZ());
+            return true;
+        }
+
+        if (query instanceof ContainerQuery.InWorld) {
+            condition.append("`world` = ?");
+            parameters.add(((ContainerQuery.InWorld) query).getWorld().toString());
+            return true;
+        }
+
+        if (query instanceof ContainerQuery.Within) {
+            ContainerQuery.Within within = (ContainerQuery.Within) query;
+
+            condition.append("(`world` = ? AND `x` BETWEEN ? AND ? AND `y` BETWEEN ? AND ? AND `z` BETWEEN ? AND ?)");
+            parameters.add(within.getWorld().toString());
+            parameters.add(within.getMin().getX());
+            parameters.add(within.getMax().getX());
+            parameters.add(within.getMin().getY());
+            parameters.add(within.getMax().getY());
+            parameters.add(within.getMin().getZ());
+            parameters.add(within.getMax().getZ());
+            return true;
+        }
+
+        if (query instanceof ContainerQuery.And)
+            return SqlFilter.append(((ContainerQuery.And) query).getQueries(), " AND ", condition, parameters);
+
+        if (query instanceof ContainerQuery.Or)
+            return SqlFilter.append(((ContainerQuery.Or) query).getQueries(), " OR ", condition, parameters);
+
+        return false;
+    }
+
+    /**
+     * Appends all {@code queries} joined by {@code operator}. No queries are never translated, a
+     * condition matching every row would make deletes wipe the table.
+     */
+    private static boolean append(List<ContainerQuery> queries, String operator, StringBuilder condition, List<Object> parameters) {
+        if (queries.isEmpty())
+            return false;
+
+        condition.append('(');
+
+        for (int i = 0; i < queries.size(); i++) {
+            if (i > 0)
+                condition.append(operator);
+
+            if (!SqlFilter.append(queries.get(i), condition, parameters))
+                return false;
+        }
+
+        condition.append(')');
+        return true;
+    }
+
+    String getCondition() {
+        return this.condition;
+    }
+
+    /**
+     * Sets parameters of this filter in {@code preparedStatement} starting at {@code index}.
+     *
+     * @return Index of next parameter.
+     */
+    int bind(PreparedStatement preparedStatement, int index) throws SQLException {
+        for (Object parameter : this.parameters) {
+            if (parameter instanceof Integer)
+                preparedStatement.setInt(index++, (Integer) parameter);
+            else
+                preparedStatement.setString(index++, (String) parameter);
+        }
+
+        return index;
+    }
+}
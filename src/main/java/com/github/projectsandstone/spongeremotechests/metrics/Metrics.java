@@ -0,0 +1,142 @@
+/**
+ *      SpongeRemoteChests - Access your containers remotely.
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2017 Sandstone <https://github.com/ProjectSandstone/SpongeRemoteChests/>
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.projectsandstone.spongeremotechests.metrics;
+
+import com.github.projectsandstone.spongeremotechests.util.InternPool;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Records metrics of operations and logs operations which take longer than a threshold.
+ */
+public final class Metrics {
+
+    private final Logger logger;
+    private final long slowThreshold;
+    private final ConcurrentMap<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+
+    /**
+     * @param logger        Logger of slow operations.
+     * @param slowThreshold Milliseconds an operation must take to be logged, 0 to not log.
+     */
+    public Metrics(Logger logger, long slowThreshold) {
+        this.logger = logger;
+        this.slowThreshold = TimeUnit.MILLISECONDS.toNanos(slowThreshold);
+    }
+
+    /**
+     * Gets metrics of operation {@code name}.
+     *
+     * @param name Name of operation.
+     * @return Metrics of operation {@code name}.
+     */
+    @NotNull
+    public OperationMetrics operation(@NotNull String name) {
+        return this.operations.computeIfAbsent(name, OperationMetrics::new);
+    }
+
+    /**
+     * Starts {@code operation} and records its metrics when the returned future completes.
+     *
+     * @param name      Name of operation.
+     * @param operation Operation.
+     * @param <T>       Type of result.
+     * @return Future returned by {@code operation}.
+     */
+    @NotNull
+    public <T> CompletableFuture<T> time(@NotNull String name, @NotNull Supplier<CompletableFuture<T>> operation) {
+        OperationMetrics metrics = this.operation(name);
+        long start = System.nanoTime();
+        CompletableFuture<T> future;
+
+        metrics.started();
+
+        try {
+            future = operation.get();
+        } catch (RuntimeException e) {
+            this.completed(metrics, start, true);
+            throw e;
+        }
+
+        future.whenComplete((result, t) -> this.completed(metrics, start, t != null));
+
+        return future;
+    }
+
+    /**
+     * Gets a line for each operation and each {@link InternPool}.
+     */
+    @NotNull
+    public List<String> report() {
+        List<String> lines = new ArrayList<>();
+
+        new TreeMap<>(this.operations).values().forEach(metrics -> lines.add(metrics.toString()));
+
+        lines.add(InternPool.NAMES.toString());
+        lines.add(InternPool.WORLDS.toString());
+
+        return lines;
+    }
+
+    /**
+     * Writes {@link #report()} to {@code file}, replacing it.
+     *
+     * @param file File to write to.
+     * @throws IOException If file cannot be written.
+     */
+    public void write(@NotNull Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+
+        Files.write(temp, this.report(), StandardCharsets.UTF_8);
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void completed(OperationMetrics metrics, long start, boolean failed) {
+        long nanos = System.nanoTime() - start;
+
+        metrics.completed(nanos, failed);
+
+        if (this.slowThreshold > 0 && nanos >= this.slowThreshold)
+            this.logger.warn("Slow operation '" + metrics.getName() + "' took " + OperationMetrics.millis(nanos) + " ms.");
+    }
+}
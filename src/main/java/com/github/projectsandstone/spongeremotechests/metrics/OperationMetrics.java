@@ -0,0 +1,101 @@
+/**
+ *      SpongeRemoteChests - Access your containers remotely.
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2017 Sandstone <https://github.com/ProjectSandstone/SpongeRemoteChests/>
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.projectsandstone.spongeremotechests.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts and latencies of an operation.
+ */
+public final class OperationMetrics {
+
+    private final String name;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder inFlight = new LongAdder();
+    private final LatencyHistogram latencies = new LatencyHistogram();
+
+    OperationMetrics(String name) {
+        this.name = name;
+    }
+
+    void started() {
+        this.calls.increment();
+        this.inFlight.increment();
+    }
+
+    void completed(long nanos, boolean failed) {
+        this.inFlight.decrement();
+        this.latencies.record(nanos);
+
+        if (failed)
+            this.errors.increment();
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Gets the number of started operations.
+     */
+    public long getCalls() {
+        return this.calls.sum();
+    }
+
+    /**
+     * Gets the number of operations which completed exceptionally.
+     */
+    public long getErrors() {
+        return this.errors.sum();
+    }
+
+    /**
+     * Gets the number of operations started and not yet completed.
+     */
+    public long getInFlight() {
+        return this.inFlight.sum();
+    }
+
+    public LatencyHistogram getLatencies() {
+        return this.latencies;
+    }
+
+    @Override
+    public String toString() {
+        return this.name + ": " + this.getCalls() + " calls, " + this.getErrors() + " errors, "
+                + this.getInFlight() + " in flight, p50 " + OperationMetrics.millis(this.latencies.getPercentile(0.5))
+                + " ms, p99 " + OperationMetrics.millis(this.latencies.getPercentile(0.99))
+                + " ms, max " + OperationMetrics.millis(this.latencies.getMax()) + " ms";
+    }
+
+    static String millis(long nanos) {
+        return String.format("%.2f", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+}
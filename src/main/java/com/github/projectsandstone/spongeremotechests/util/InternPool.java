@@ -0,0 +1,141 @@
+/**
+ *      SpongeRemoteChests - Access your containers remotely.
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2017 Sandstone <https://github.com/ProjectSandstone/SpongeRemoteChests/>
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.projectsandstone.spongeremotechests.util;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * Pool of canonical instances of equal values, so values repeated by many containers (such as
+ * names and world unique ids) are kept in memory only once.
+ *
+ * Pools of values with many distinct instances (names) reference them weakly, so values no longer
+ * used by any container are collected. Pools of values with few distinct instances (worlds)
+ * reference them strongly.
+ *
+ * @param <T> Type of values.
+ */
+public final class InternPool<T> {
+
+    private static final long UUID_SIZE = 32;
+
+    /**
+     * Container names.
+     */
+    public static final InternPool<String> NAMES = new InternPool<>("names", Interners.newWeakInterner(), InternPool::sizeOf);
+
+    /**
+     * World unique ids.
+     */
+    public static final InternPool<UUID> WORLDS = new InternPool<>("worlds", Interners.newStrongInterner(), uuid -> UUID_SIZE);
+
+    private final String name;
+    private final Interner<T> interner;
+    private final ToLongFunction<T> sizeOf;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder savedBytes = new LongAdder();
+
+    /**
+     * @param name     Name of the pool, used in {@link #toString()}.
+     * @param interner Interner holding canonical instances.
+     * @param sizeOf   Estimated heap size in bytes of a value.
+     */
+    public InternPool(String name, Interner<T> interner, ToLongFunction<T> sizeOf) {
+        this.name = name;
+        this.interner = interner;
+        this.sizeOf = sizeOf;
+    }
+
+    /**
+     * Gets the canonical instance of {@code value}.
+     *
+     * @param value Value.
+     * @return The canonical instance equal to {@code value}, or null if {@code value} is null.
+     */
+    @Nullable
+    public T intern(@Nullable T value) {
+        if (value == null)
+            return null;
+
+        this.requests.increment();
+
+        T canonical = this.interner.intern(value);
+
+        if (canonical != value) {
+            this.hits.increment();
+            this.savedBytes.add(this.sizeOf.applyAsLong(value));
+        }
+
+        return canonical;
+    }
+
+    /**
+     * Gets the number of {@link #intern(Object)} calls with a non-null value.
+     */
+    public long getRequests() {
+        return this.requests.sum();
+    }
+
+    /**
+     * Gets the number of {@link #intern(Object)} calls which replaced a duplicate instance.
+     */
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    /**
+     * Gets an estimate of bytes of duplicate instances replaced by canonical instances. Replaced
+     * instances are only freed if they are not referenced elsewhere.
+     */
+    public long getSavedBytes() {
+        return this.savedBytes.sum();
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return this.name + ": " + this.getHits() + "/" + this.getRequests()
+                + " duplicates, ~" + (this.getSavedBytes() / 1024) + " KiB saved";
+    }
+
+    /**
+     * Estimated heap size of a Java 8 {@link String}: header, hash and value fields plus the char
+     * array.
+     */
+    private static long sizeOf(String value) {
+        return 24 + ((16 + 2L * value.length() + 7) & ~7L);
+    }
+}
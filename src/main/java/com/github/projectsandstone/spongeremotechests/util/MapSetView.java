@@ -29,19 +29,25 @@ package com.github.projectsandstone.spongeremotechests.util;
 
 import org.jetbrains.annotations.NotNull;
 
-import java.util.AbstractMap;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A view of a Map with unmodifiable {@link Set} values.
+ *
+ * The unmodifiable wrapper of each value and the entry of each key are created once and reused by
+ * {@link #get(Object)} and iterations, until the value of the key is replaced in the original map.
  */
 public final class MapSetView<K, E> implements Map<K, Set<E>> {
 
     private final Map<K, Set<E>> original;
+    private final Map<K, ViewEntry<K, E>> entries = new ConcurrentHashMap<>();
 
     public MapSetView(Map<K, Set<E>> original) {
         this.original = original;
@@ -74,7 +80,10 @@ public final class MapSetView<K, E> implements Map<K, Set<E>> {
         if(es == null)
             return null;
 
-        return Collections.unmodifiableSet(es);
+        @SuppressWarnings("unchecked")
+        K k = (K) key;
+
+        return this.entry(k, es).value;
     }
 
     @Override
@@ -100,134 +109,176 @@ public final class MapSetView<K, E> implements Map<K, Set<E>> {
     @NotNull
     @Override
     public Set<K> keySet() {
-        return Collections.unmodifiableSet(this.original.keySet());
+        return new UnmodSet<>(this.original.keySet());
     }
 
     @NotNull
     @Override
     public Collection<Set<E>> values() {
-        return new UnmodValuesColl<>(this.original.values());
+        return new UnmodValuesColl();
     }
 
     @NotNull
     @Override
     public Set<Entry<K, Set<E>>> entrySet() {
-        return new UnmodEntrySet<>(this.original.entrySet());
+        return new UnmodEntrySet();
     }
 
-    static class UnmodEntrySet<K, E> implements Set<Entry<K, Set<E>>> {
+    @Override
+    public boolean equals(Object obj) {
+        return obj == this || this.original.equals(obj);
+    }
 
-        private final Set<Entry<K, Set<E>>> original;
+    @Override
+    public int hashCode() {
+        return this.original.hashCode();
+    }
 
-        UnmodEntrySet(Set<Entry<K, Set<E>>> original) {
-            this.original = original;
-        }
+    @Override
+    public String toString() {
+        return this.original.toString();
+    }
 
-        @Override
-        public int size() {
-            return this.original.size();
+    /**
+     * Gets the cached entry of {@code key}, creating a new entry if {@code key} has no entry or if
+     * its value was replaced.
+     */
+    private ViewEntry<K, E> entry(K key, Set<E> es) {
+        ViewEntry<K, E> entry = this.entries.get(key);
+
+        if (entry == null || entry.value.original != es) {
+            entry = new ViewEntry<>(key, es);
+            this.entries.put(key, entry);
         }
 
+        return entry;
+    }
+
+    final class UnmodEntrySet extends AbstractSet<Entry<K, Set<E>>> {
+
         @Override
-        public boolean isEmpty() {
-            return this.original.isEmpty();
+        public int size() {
+            return MapSetView.this.original.size();
         }
 
         @Override
         public boolean contains(Object o) {
-            return this.original.contains(o);
+            if (!(o instanceof Entry))
+                return false;
+
+            Entry<?, ?> entry = (Entry<?, ?>) o;
+            Set<E> es = MapSetView.this.original.get(entry.getKey());
+
+            return es != null && es.equals(entry.getValue());
         }
 
         @NotNull
         @Override
         public Iterator<Entry<K, Set<E>>> iterator() {
-            return new UnmodEntrySetIterator<>(this.original.iterator());
-        }
+            Iterator<Entry<K, Set<E>>> iterator = MapSetView.this.original.entrySet().iterator();
 
-        @NotNull
-        @Override
-        public Object[] toArray() {
-            return this.original.stream()
-                    .map(kSetEntry ->
-                            new AbstractMap.SimpleImmutableEntry<>(kSetEntry.getKey(), Collections.unmodifiableSet(kSetEntry.getValue())))
-                    .toArray(Object[]::new);
-        }
+            return new Iterator<Entry<K, Set<E>>>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
 
-        @NotNull
-        @Override
-        public <T> T[] toArray(@NotNull T[] a) {
-            return this.original.stream()
-                    .map(kSetEntry ->
-                            new AbstractMap.SimpleImmutableEntry<>(kSetEntry.getKey(), Collections.unmodifiableSet(kSetEntry.getValue())))
-                    .toArray(value -> a);
+                @Override
+                public Entry<K, Set<E>> next() {
+                    Entry<K, Set<E>> next = iterator.next();
+                    return MapSetView.this.entry(next.getKey(), next.getValue());
+                }
+            };
         }
+    }
+
+    final class UnmodValuesColl extends AbstractCollection<Set<E>> {
 
         @Override
-        public boolean add(Entry<K, Set<E>> kSetEntry) {
-            throw new UnsupportedOperationException("Unmodifiable set.");
+        public int size() {
+            return MapSetView.this.original.size();
         }
 
         @Override
-        public boolean remove(Object o) {
-            throw new UnsupportedOperationException("Unmodifiable set.");
+        public boolean contains(Object o) {
+            return MapSetView.this.original.containsValue(o);
         }
 
+        @NotNull
         @Override
-        public boolean containsAll(@NotNull Collection<?> c) {
-            return this.original.containsAll(c);
+        public Iterator<Set<E>> iterator() {
+            Iterator<Entry<K, Set<E>>> iterator = MapSetView.this.original.entrySet().iterator();
+
+            return new Iterator<Set<E>>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public Set<E> next() {
+                    Entry<K, Set<E>> next = iterator.next();
+                    return MapSetView.this.entry(next.getKey(), next.getValue()).value;
+                }
+            };
         }
+    }
 
-        @Override
-        public boolean addAll(@NotNull Collection<? extends Entry<K, Set<E>>> c) {
-            throw new UnsupportedOperationException("Unmodifiable set.");
+    static final class ViewEntry<K, E> implements Entry<K, Set<E>> {
+
+        private final K key;
+        private final UnmodSet<E> value;
+
+        ViewEntry(K key, Set<E> original) {
+            this.key = key;
+            this.value = new UnmodSet<>(original);
         }
 
         @Override
-        public boolean retainAll(@NotNull Collection<?> c) {
-            throw new UnsupportedOperationException("Unmodifiable set.");
+        public K getKey() {
+            return this.key;
         }
 
         @Override
-        public boolean removeAll(@NotNull Collection<?> c) {
-            throw new UnsupportedOperationException("Unmodifiable set.");
+        public Set<E> getValue() {
+            return this.value;
         }
 
         @Override
-        public void clear() {
-            throw new UnsupportedOperationException("Unmodifiable set.");
+        public Set<E> setValue(Set<E> value) {
+            throw new UnsupportedOperationException("Unmodifiable entry.");
         }
-    }
 
-    static class UnmodEntrySetIterator<K, E> implements Iterator<Entry<K, Set<E>>> {
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Entry))
+                return false;
 
-        private final Iterator<Entry<K, Set<E>>> original;
+            Entry<?, ?> other = (Entry<?, ?>) obj;
 
-        UnmodEntrySetIterator(Iterator<Entry<K, Set<E>>> original) {
-            this.original = original;
+            return Objects.equals(this.key, other.getKey()) && this.value.equals(other.getValue());
         }
 
         @Override
-        public boolean hasNext() {
-            return this.original.hasNext();
+        public int hashCode() {
+            return Objects.hashCode(this.key) ^ this.value.hashCode();
         }
 
         @Override
-        public Entry<K, Set<E>> next() {
-            Entry<K, Set<E>> next = this.original.next();
-            return new AbstractMap.SimpleImmutableEntry<>(next.getKey(), Collections.unmodifiableSet(next.getValue()));
-        }
-
-        @Override
-        public void remove() {
-            throw new UnsupportedOperationException("Unmodifiable iterator.");
+        public String toString() {
+            return this.key + "=" + this.value;
         }
     }
 
-    static class UnmodValuesColl<E> implements Collection<Set<E>> {
+    /**
+     * Unmodifiable view of a set, unlike {@link java.util.Collections#unmodifiableSet(Set)} it
+     * exposes the backing set to tell whether a cached view is stale.
+     */
+    static final class UnmodSet<E> extends AbstractSet<E> {
 
-        private final Collection<Set<E>> original;
+        private final Set<E> original;
 
-        UnmodValuesColl(Collection<Set<E>> original) {
+        UnmodSet(Set<E> original) {
             this.original = original;
         }
 
@@ -246,81 +297,54 @@ public final class MapSetView<K, E> implements Map<K, Set<E>> {
             return this.original.contains(o);
         }
 
-        @NotNull
-        @Override
-        public Iterator<Set<E>> iterator() {
-            return new UnmodIterator<>(this.original.iterator());
-        }
-
-        @NotNull
-        @Override
-        public Object[] toArray() {
-            return this.original.stream().map(Collections::unmodifiableSet).toArray(Object[]::new);
-        }
-
-        @NotNull
-        @Override
-        public <T> T[] toArray(@NotNull T[] a) {
-            return this.original.stream().map(Collections::unmodifiableSet).toArray(value -> a);
-        }
-
-        @Override
-        public boolean add(Set<E> es) {
-            throw new UnsupportedOperationException("Unmodifiable collection.");
-        }
-
-        @Override
-        public boolean remove(Object o) {
-            throw new UnsupportedOperationException("Unmodifiable collection.");
-        }
-
         @Override
         public boolean containsAll(@NotNull Collection<?> c) {
             return this.original.containsAll(c);
         }
 
+        @NotNull
         @Override
-        public boolean addAll(@NotNull Collection<? extends Set<E>> c) {
-            throw new UnsupportedOperationException("Unmodifiable collection.");
-        }
+        public Iterator<E> iterator() {
+            Iterator<E> iterator = this.original.iterator();
 
-        @Override
-        public boolean removeAll(@NotNull Collection<?> c) {
-            throw new UnsupportedOperationException("Unmodifiable collection.");
-        }
+            return new Iterator<E>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
 
-        @Override
-        public boolean retainAll(@NotNull Collection<?> c) {
-            throw new UnsupportedOperationException("Unmodifiable collection.");
+                @Override
+                public E next() {
+                    return iterator.next();
+                }
+            };
         }
 
+        @NotNull
         @Override
-        public void clear() {
-            throw new UnsupportedOperationException("Unmodifiable collection.");
+        public Object[] toArray() {
+            return this.original.toArray();
         }
-    }
-
-    static class UnmodIterator<E> implements Iterator<Set<E>> {
 
-        private final Iterator<Set<E>> original;
-
-        UnmodIterator(Iterator<Set<E>> original) {
-            this.original = original;
+        @NotNull
+        @Override
+        public <T> T[] toArray(@NotNull T[] a) {
+            return this.original.toArray(a);
         }
 
         @Override
-        public boolean hasNext() {
-            return this.original.hasNext();
+        public boolean equals(Object o) {
+            return o == this || this.original.equals(o);
         }
 
         @Override
-        public Set<E> next() {
-            return Collections.unmodifiableSet(this.original.next());
+        public int hashCode() {
+            return this.original.hashCode();
         }
 
         @Override
-        public void remove() {
-            throw new UnsupportedOperationException("Unmodifiable collection.");
+        public String toString() {
+            return this.original.toString();
         }
     }
 }
@@ -38,29 +38,56 @@ import java.io.InputStreamReader;
 
 public class Resources {
 
+    /**
+     * Gets the sql query of {@code type}. Queries are read from classpath only once.
+     *
+     * @param type Query type.
+     * @return Sql query.
+     */
     public static String getSqlQuery(Type type) {
-        InputStream resourceAsStream = SpongeRemoteChestsPlugin.class.getClassLoader().getResourceAsStream("/sql/" + type.name);
+        String query = type.query;
 
-        String query;
+        if (query == null) {
+            query = Resources.readSqlQuery(type);
+            type.query = query;
+        }
+
+        return query;
+    }
+
+    private static String readSqlQuery(Type type) {
+        InputStream resourceAsStream = SpongeRemoteChestsPlugin.class.getClassLoader().getResourceAsStream("sql/" + type.name);
+
+        if (resourceAsStream == null)
+            throw new IllegalStateException("Cannot find sql query resource '" + type.name + "'.");
 
         try (InputStreamReader reader = new InputStreamReader(resourceAsStream, Charsets.UTF_8)) {
-            query = CharStreams.toString(reader);
+            return CharStreams.toString(reader);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
-
-        return query;
     }
 
     public enum Type {
         CONTAINERS_STRUCT("containers.sql"),
+        CONTAINERS_LOCATION_INDEX("containers_location_index.sql"),
+        CONTAINERS_WORLD_INDEX("containers_world_index.sql"),
+        CONTAINERS_NAME_INDEX("containers_name_index.sql"),
         QUERY_USER("query_user.sql"),
         QUERY_ALL("query_all.sql"),
         QUERY_CONTAINER("query_container.sql"),
+        QUERY_LOCATION("query_location.sql"),
+        QUERY_CHUNK("query_chunk.sql"),
+        QUERY_PAGE("query_page.sql"),
+        QUERY_NAME("query_name.sql"),
+        COUNT_USER("count_user.sql"),
         INSERT_CONTAINER("insert_container.sql"),
-        DELETE_CONTAINER("delete_container.sql");
+        DELETE_CONTAINER("delete_container.sql"),
+        DELETE_USER("delete_user.sql"),
+        DELETE_ALL("delete_all.sql");
 
         final String name;
+        volatile String query;
 
         Type(String name) {
             this.name = name;
@@ -0,0 +1,93 @@
+/**
+ *      SpongeRemoteChests - Access your containers remotely.
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2017 Sandstone <https://github.com/ProjectSandstone/SpongeRemoteChests/>
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.projectsandstone.spongeremotechests.util;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import com.github.jonathanxd.iutils.object.Lazy;
+
+import org.jetbrains.annotations.NotNull;
+import org.spongepowered.api.Sponge;
+import org.spongepowered.api.entity.living.player.User;
+import org.spongepowered.api.service.user.UserStorageService;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves {@link User Users} from unique ids with {@link UserStorageService} and keeps recently
+ * resolved users, {@link UserStorageService} may read player data from disk to resolve an offline
+ * user.
+ *
+ * Users which cannot be resolved are not kept, they may be resolvable later.
+ */
+public final class UserResolver {
+
+    private static final int MAX_USERS = 256;
+    private static final long EXPIRE_AFTER_ACCESS = 10;
+
+    private final Lazy<UserStorageService> service;
+    private final Cache<UUID, User> cache = CacheBuilder.newBuilder()
+            .maximumSize(MAX_USERS)
+            .expireAfterAccess(EXPIRE_AFTER_ACCESS, TimeUnit.MINUTES)
+            .build();
+
+    public UserResolver() {
+        this.service = Lazy.lazy(() -> {
+            Optional<UserStorageService> provide = Sponge.getServiceManager().provide(UserStorageService.class);
+
+            if (!provide.isPresent())
+                throw new IllegalStateException("UserStorageService required too early!");
+
+            return provide.get();
+        });
+    }
+
+    /**
+     * Resolves the user with unique id {@code uuid}.
+     *
+     * @param uuid Unique id of user.
+     * @return User with unique id {@code uuid}, or {@link Optional#empty()} if there is no such
+     * user.
+     */
+    @NotNull
+    public Optional<User> resolve(@NotNull UUID uuid) {
+        User cached = this.cache.getIfPresent(uuid);
+
+        if (cached != null)
+            return Optional.of(cached);
+
+        Optional<User> user = this.service.get().get(uuid);
+
+        user.ifPresent(u -> this.cache.put(uuid, u));
+
+        return user;
+    }
+}
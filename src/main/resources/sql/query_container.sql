@@ -26,4 +26,4 @@
 --      THE SOFTWARE.
 --
 
-SELECT * FROM `containers` WHERE `owner` = ? AND `world` = ? AND `x` = ? AND `y` = ? AND `z` = ?
\ No newline at end of file
+SELECT 1 FROM `containers` WHERE `owner` = ? AND `world` = ? AND `x` = ? AND `y` = ? AND `z` = ? LIMIT 1
\ No newline at end of file
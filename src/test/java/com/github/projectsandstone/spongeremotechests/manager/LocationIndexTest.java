@@ -0,0 +1,125 @@
+/**
+ *      SpongeRemoteChests - Access your containers remotely.
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2017 Sandstone <https://github.com/ProjectSandstone/SpongeRemoteChests/>
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.projectsandstone.spongeremotechests.manager;
+
+import com.github.projectsandstone.spongeremotechests.api.RemoteContainer;
+import com.github.projectsandstone.spongeremotechests.api.factory.RemoteContainerFactory;
+import com.github.projectsandstone.spongeremotechests.api.query.ContainerQuery;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+public class LocationIndexTest {
+
+    private static final UUID WORLD = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final UUID OTHER_WORLD = UUID.fromString("00000000-0000-0000-0000-000000000002");
+    private static final UUID ALICE = UUID.fromString("00000000-0000-0000-0000-00000000000a");
+    private static final UUID BOB = UUID.fromString("00000000-0000-0000-0000-00000000000b");
+
+    @Test
+    public void getsOwnersAtPosition() {
+        LocationIndex index = new LocationIndex();
+        RemoteContainer alice = RemoteContainerFactory.createChest("a", WORLD, 1, 64, -1);
+        RemoteContainer bob = RemoteContainerFactory.createChest("b", WORLD, 1, 64, -1);
+
+        index.add(ALICE, alice);
+        index.add(BOB, bob);
+        index.add(ALICE, RemoteContainerFactory.createChest(null, WORLD, 1, 65, -1));
+        index.add(ALICE, RemoteContainerFactory.createChest(null, OTHER_WORLD, 1, 64, -1));
+
+        Map<UUID, RemoteContainer> expected = new HashMap<>();
+
+        expected.put(ALICE, alice);
+        expected.put(BOB, bob);
+
+        Assert.assertEquals(expected, index.get(WORLD, 1, 64, -1));
+        Assert.assertEquals(Collections.emptyMap(), index.get(WORLD, 2, 64, -1));
+    }
+
+    @Test
+    public void getsLinksInChunk() {
+        LocationIndex index = new LocationIndex();
+        RemoteContainer first = RemoteContainerFactory.createChest(null, WORLD, -1, 10, -16);
+        RemoteContainer second = RemoteContainerFactory.createChest(null, WORLD, -16, 20, -1);
+
+        index.add(ALICE, first);
+        index.add(ALICE, second);
+        index.add(BOB, RemoteContainerFactory.createChest(null, WORLD, 0, 10, 0));
+
+        Map<UUID, Set<RemoteContainer>> inChunk = index.getInChunk(WORLD, -1, -1);
+
+        Assert.assertEquals(Collections.singleton(ALICE), inChunk.keySet());
+        Assert.assertEquals(new HashSet<>(Arrays.asList(first, second)), inChunk.get(ALICE));
+        Assert.assertEquals(Collections.emptyMap(), index.getInChunk(OTHER_WORLD, -1, -1));
+    }
+
+    @Test
+    public void removesOnlyLinkOfOwner() {
+        LocationIndex index = new LocationIndex();
+        RemoteContainer alice = RemoteContainerFactory.createChest(null, WORLD, 5, 5, 5);
+        RemoteContainer bob = RemoteContainerFactory.createChest(null, WORLD, 5, 5, 5);
+
+        index.add(ALICE, alice);
+        index.add(BOB, bob);
+        index.remove(ALICE, alice);
+
+        Assert.assertEquals(Collections.singletonMap(BOB, bob), index.get(WORLD, 5, 5, 5));
+
+        index.remove(BOB, bob);
+
+        Assert.assertEquals(Collections.emptyMap(), index.get(WORLD, 5, 5, 5));
+        Assert.assertEquals(Collections.emptyMap(), index.getInChunk(WORLD, 0, 0));
+    }
+
+    @Test
+    public void findsLocationQueries() {
+        LocationIndex index = new LocationIndex();
+        RemoteContainer named = RemoteContainerFactory.createChest("chest", WORLD, 1, 2, 3);
+        RemoteContainer unnamed = RemoteContainerFactory.createChest(null, WORLD, 100, 2, 100);
+
+        index.add(ALICE, named);
+        index.add(ALICE, unnamed);
+        index.add(BOB, RemoteContainerFactory.createChest(null, OTHER_WORLD, 1, 2, 3));
+
+        Assert.assertEquals(Collections.singletonMap(ALICE, Collections.singleton(named)),
+                index.find(ContainerQuery.at(named)));
+        Assert.assertEquals(Collections.singletonMap(ALICE, new HashSet<>(Arrays.asList(named, unnamed))),
+                index.find(ContainerQuery.inWorld(WORLD)));
+        Assert.assertEquals(Collections.singletonMap(ALICE, Collections.singleton(named)),
+                index.find(ContainerQuery.and(ContainerQuery.inWorld(WORLD), ContainerQuery.named("chest"))));
+        Assert.assertNull(index.find(ContainerQuery.named("chest")));
+    }
+}
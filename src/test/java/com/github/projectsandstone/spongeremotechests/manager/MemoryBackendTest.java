@@ -0,0 +1,91 @@
+/**
+ *      SpongeRemoteChests - Access your containers remotely.
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2017 Sandstone <https://github.com/ProjectSandstone/SpongeRemoteChests/>
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.projectsandstone.spongeremotechests.manager;
+
+import com.github.projectsandstone.spongeremotechests.api.RemoteContainer;
+import com.github.projectsandstone.spongeremotechests.api.factory.RemoteContainerFactory;
+import com.github.projectsandstone.spongeremotechests.api.query.ContainerQuery;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.spongepowered.api.world.Location;
+import org.spongepowered.api.world.World;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.UUID;
+
+public class MemoryBackendTest {
+
+    private static final UUID WORLD = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final UUID ALICE = UUID.fromString("00000000-0000-0000-0000-00000000000a");
+    private static final UUID BOB = UUID.fromString("00000000-0000-0000-0000-00000000000b");
+
+    @Test
+    public void looksUpRegisteredLinks() {
+        MemoryBackend backend = new MemoryBackend() {
+        };
+        World world = MemoryBackendTest.world(WORLD);
+        RemoteContainer alice = RemoteContainerFactory.createChest(null, WORLD, 17, 64, -3);
+
+        backend.register(ALICE, alice).join();
+
+        Assert.assertEquals(Collections.singletonMap(ALICE, alice), backend.getLinksAt(new Location<>(world, 17, 64, -3)).join());
+        Assert.assertEquals(Collections.singletonMap(ALICE, Collections.singleton(alice)), backend.getLinksInChunk(world, 1, -1).join());
+        Assert.assertEquals(Collections.emptyMap(), backend.getLinksInChunk(world, 0, -1).join());
+    }
+
+    @Test
+    public void forgetsUnregisteredLinks() {
+        MemoryBackend backend = new MemoryBackend() {
+        };
+        World world = MemoryBackendTest.world(WORLD);
+        RemoteContainer alice = RemoteContainerFactory.createChest(null, WORLD, 0, 0, 0);
+        RemoteContainer bob = RemoteContainerFactory.createChest(null, WORLD, 0, 0, 0);
+
+        backend.register(ALICE, alice).join();
+        backend.register(BOB, bob).join();
+        backend.unregister(ALICE, ContainerQuery.at(alice)).join();
+
+        Assert.assertEquals(Collections.singletonMap(BOB, bob), backend.getLinksAt(new Location<>(world, 0, 0, 0)).join());
+
+        backend.unregisterAll(ContainerQuery.inWorld(WORLD)).join();
+
+        Assert.assertEquals(Collections.emptyMap(), backend.getLinksAt(new Location<>(world, 0, 0, 0)).join());
+    }
+
+    private static World world(UUID uniqueId) {
+        return (World) Proxy.newProxyInstance(MemoryBackendTest.class.getClassLoader(), new Class<?>[]{World.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("getUniqueId"))
+                        return uniqueId;
+
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
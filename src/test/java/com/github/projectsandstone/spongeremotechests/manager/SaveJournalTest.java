@@ -0,0 +1,156 @@
+/**
+ *      SpongeRemoteChests - Access your containers remotely.
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2017 Sandstone <https://github.com/ProjectSandstone/SpongeRemoteChests/>
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.projectsandstone.spongeremotechests.manager;
+
+import com.google.common.base.Charsets;
+
+import com.github.projectsandstone.spongeremotechests.api.RemoteContainer;
+import com.github.projectsandstone.spongeremotechests.api.factory.RemoteContainerFactory;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.helpers.NOPLogger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+public class SaveJournalTest {
+
+    private static final UUID OWNER = UUID.fromString("00000000-0000-0000-0000-00000000000a");
+    private static final UUID WORLD = UUID.fromString("00000000-0000-0000-0000-000000000001");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void replaysChanges() throws IOException {
+        Path directory = this.folder.getRoot().toPath();
+        RemoteContainer named = RemoteContainerFactory.createChest("a\tb\\c", WORLD, 1, 2, 3);
+        RemoteContainer unnamed = RemoteContainerFactory.createChest(null, WORLD, -4, 5, -6);
+
+        try (SaveJournal journal = new SaveJournal(directory)) {
+            journal.add(OWNER, named);
+            journal.add(OWNER, unnamed);
+            journal.remove(OWNER, named);
+        }
+
+        Recorder recorder = new Recorder();
+        List<Path> files = SaveJournal.list(directory);
+
+        Assert.assertEquals(1, files.size());
+        Assert.assertEquals(0, SaveJournal.replay(files.get(0), NOPLogger.NOP_LOGGER, recorder));
+        Assert.assertEquals(3, recorder.changes.size());
+        Assert.assertEquals(Recorder.describe('+', named), recorder.changes.get(0));
+        Assert.assertEquals(Recorder.describe('+', unnamed), recorder.changes.get(1));
+        // Names are not journaled for removals
+        Assert.assertEquals(Recorder.describe('-', RemoteContainerFactory.createChest(null, WORLD, 1, 2, 3)), recorder.changes.get(2));
+    }
+
+    @Test
+    public void skipsTornLastLine() throws IOException {
+        Path directory = this.folder.getRoot().toPath();
+        RemoteContainer remoteContainer = RemoteContainerFactory.createChest("chest", WORLD, 1, 2, 3);
+
+        try (SaveJournal journal = new SaveJournal(directory)) {
+            journal.add(OWNER, remoteContainer);
+        }
+
+        Path file = SaveJournal.list(directory).get(0);
+
+        // Crash while writing the second line
+        Files.write(file, ("+\t" + OWNER + "\t" + WORLD.toString().substring(0, 10)).getBytes(Charsets.UTF_8), StandardOpenOption.APPEND);
+
+        Recorder recorder = new Recorder();
+
+        Assert.assertEquals(1, SaveJournal.replay(file, NOPLogger.NOP_LOGGER, recorder));
+        Assert.assertEquals(1, recorder.changes.size());
+        Assert.assertEquals(Recorder.describe('+', remoteContainer), recorder.changes.get(0));
+    }
+
+    @Test
+    public void skipsUnterminatedLastLineWhichParses() throws IOException {
+        Path directory = this.folder.getRoot().toPath();
+        RemoteContainer remoteContainer = RemoteContainerFactory.createChest("chest", WORLD, 1, 2, 3);
+
+        try (SaveJournal journal = new SaveJournal(directory)) {
+            journal.add(OWNER, remoteContainer);
+        }
+
+        Path file = SaveJournal.list(directory).get(0);
+
+        // Crash while writing z of "1234" and before the name
+        Files.write(file, ("+\t" + OWNER + "\t" + WORLD + "\t1\t2\t12").getBytes(Charsets.UTF_8), StandardOpenOption.APPEND);
+
+        Recorder recorder = new Recorder();
+
+        Assert.assertEquals(1, SaveJournal.replay(file, NOPLogger.NOP_LOGGER, recorder));
+        Assert.assertEquals(1, recorder.changes.size());
+        Assert.assertEquals(Recorder.describe('+', remoteContainer), recorder.changes.get(0));
+    }
+
+    @Test
+    public void skipsLineWithInvalidNumber() throws IOException {
+        Path file = this.folder.getRoot().toPath().resolve("journal-1.log");
+
+        Files.write(file, ("+\t" + OWNER + "\t" + WORLD + "\t1\t2\t3\n"
+                + "-\t" + OWNER + "\t" + WORLD + "\t1\t2\n").getBytes(Charsets.UTF_8));
+
+        Recorder recorder = new Recorder();
+
+        Assert.assertEquals(1, SaveJournal.replay(file, NOPLogger.NOP_LOGGER, recorder));
+        Assert.assertEquals(1, recorder.changes.size());
+    }
+
+    private static final class Recorder implements SaveJournal.Consumer {
+        private final List<String> changes = new ArrayList<>();
+
+        @Override
+        public void add(UUID owner, RemoteContainer remoteContainer) {
+            Assert.assertEquals(OWNER, owner);
+            this.changes.add(Recorder.describe('+', remoteContainer));
+        }
+
+        @Override
+        public void remove(UUID owner, RemoteContainer remoteContainer) {
+            Assert.assertEquals(OWNER, owner);
+            this.changes.add(Recorder.describe('-', remoteContainer));
+        }
+
+        static String describe(char operation, RemoteContainer remoteContainer) {
+            return operation + " " + remoteContainer.getWorldUniqueId() + " " + remoteContainer.getBlockX() + " "
+                    + remoteContainer.getBlockY() + " " + remoteContainer.getBlockZ() + " " + remoteContainer.getName().orElse(null);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ *      SpongeRemoteChests - Access your containers remotely.
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2017 Sandstone <https://github.com/ProjectSandstone/SpongeRemoteChests/>
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.projectsandstone.spongeremotechests.manager;
+
+import com.github.projectsandstone.spongeremotechests.api.factory.RemoteContainerFactory;
+import com.github.projectsandstone.spongeremotechests.api.query.ContainerQuery;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+public class SqlFilterTest {
+
+    private static final UUID WORLD = UUID.fromString("00000000-0000-0000-0000-000000000001");
+
+    @Test
+    public void named() throws SQLException {
+        SqlFilter filter = SqlFilter.of(ContainerQuery.named("chest"));
+
+        Assert.assertEquals("`name` = ?", filter.getCondition());
+        Assert.assertEquals(Arrays.asList(1, "chest"), SqlFilterTest.bind(filter, 1));
+    }
+
+    @Test
+    public void at() throws SQLException {
+        SqlFilter filter = SqlFilter.of(ContainerQuery.at(RemoteContainerFactory.createChest(null, WORLD, 1, -2, 3)));
+
+        Assert.assertEquals("(`world` = ? AND `x` = ? AND `y` = ? AND `z` = ?)", filter.getCondition());
+        Assert.assertEquals(Arrays.asList(2, WORLD.toString(), 3, 1, 4, -2, 5, 3), SqlFilterTest.bind(filter, 2));
+    }
+
+    @Test
+    public void andOr() throws SQLException {
+        SqlFilter filter = SqlFilter.of(ContainerQuery.and(
+                ContainerQuery.inWorld(WORLD),
+                ContainerQuery.or(ContainerQuery.named("a"), ContainerQuery.named("b"))));
+
+        Assert.assertEquals("(`world` = ? AND (`name` = ? OR `name` = ?))", filter.getCondition());
+        Assert.assertEquals(Arrays.asList(1, WORLD.toString(), 2, "a", 3, "b"), SqlFilterTest.bind(filter, 1));
+    }
+
+    @Test
+    public void predicateIsNotTranslated() {
+        Assert.assertNull(SqlFilter.of(ContainerQuery.matching(remoteContainer -> true)));
+        Assert.assertNull(SqlFilter.of(ContainerQuery.and(ContainerQuery.named("a"), ContainerQuery.matching(remoteContainer -> true))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void emptyAndIsRejected() {
+        ContainerQuery.and();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void emptyOrIsRejected() {
+        ContainerQuery.or();
+    }
+
+    /**
+     * Binds {@code filter} starting at {@code index}, returning index and value of each parameter.
+     */
+    private static List<Object> bind(SqlFilter filter, int index) throws SQLException {
+        List<Object> bound = new ArrayList<>();
+
+        PreparedStatement preparedStatement = (PreparedStatement) Proxy.newProxyInstance(SqlFilterTest.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("setInt") && !method.getName().equals("setString"))
+                        throw new UnsupportedOperationException(method.getName());
+
+                    bound.addAll(Arrays.asList(args));
+                    return null;
+                });
+
+        int next = filter.bind(preparedStatement, index);
+
+        Assert.assertEquals(index + bound.size() / 2, next);
+
+        return bound;
+    }
+}
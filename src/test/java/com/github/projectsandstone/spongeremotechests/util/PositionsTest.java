@@ -0,0 +1,82 @@
+/**
+ *      SpongeRemoteChests - Access your containers remotely.
+ *
+ *         The MIT License (MIT)
+ *
+ *      Copyright (c) 2017 Sandstone <https://github.com/ProjectSandstone/SpongeRemoteChests/>
+ *      Copyright (c) contributors
+ *
+ *
+ *      Permission is hereby granted, free of charge, to any person obtaining a copy
+ *      of this software and associated documentation files (the "Software"), to deal
+ *      in the Software without restriction, including without limitation the rights
+ *      to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *      copies of the Software, and to permit persons to whom the Software is
+ *      furnished to do so, subject to the following conditions:
+ *
+ *      The above copyright notice and this permission notice shall be included in
+ *      all copies or substantial portions of the Software.
+ *
+ *      THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *      IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *      FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *      AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *      LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *      OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *      THE SOFTWARE.
+ */
+package com.github.projectsandstone.spongeremotechests.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PositionsTest {
+
+    private static final int MIN_XZ = -(1 << 25);
+    private static final int MAX_XZ = (1 << 25) - 1;
+    private static final int MIN_Y = -(1 << 11);
+    private static final int MAX_Y = (1 << 11) - 1;
+
+    @Test
+    public void packRoundTripsBounds() {
+        int[] xzs = {MIN_XZ, MIN_XZ + 1, -1, 0, 1, MAX_XZ - 1, MAX_XZ};
+        int[] ys = {MIN_Y, -1, 0, 1, 255, MAX_Y};
+
+        for (int x : xzs) {
+            for (int y : ys) {
+                for (int z : xzs) {
+                    long packed = Positions.pack(x, y, z);
+
+                    Assert.assertEquals(x, Positions.unpackX(packed));
+                    Assert.assertEquals(y, Positions.unpackY(packed));
+                    Assert.assertEquals(z, Positions.unpackZ(packed));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void packIsDistinctAtBounds() {
+        Assert.assertNotEquals(Positions.pack(MIN_XZ, 0, 0), Positions.pack(MAX_XZ, 0, 0));
+        Assert.assertNotEquals(Positions.pack(0, 0, MIN_XZ), Positions.pack(0, 0, MAX_XZ));
+        Assert.assertNotEquals(Positions.pack(0, MIN_Y, 0), Positions.pack(0, MAX_Y, 0));
+        Assert.assertNotEquals(Positions.pack(-1, 0, 0), Positions.pack(0, 0, -1));
+    }
+
+    @Test
+    public void chunkOfFloorsNegativeBlocks() {
+        Assert.assertEquals(0, Positions.chunkOf(0));
+        Assert.assertEquals(0, Positions.chunkOf(15));
+        Assert.assertEquals(1, Positions.chunkOf(16));
+        Assert.assertEquals(-1, Positions.chunkOf(-1));
+        Assert.assertEquals(-1, Positions.chunkOf(-16));
+        Assert.assertEquals(-2, Positions.chunkOf(-17));
+    }
+
+    @Test
+    public void chunkKeyOfMatchesChunkOfUnpacked() {
+        Assert.assertEquals(Positions.chunkKey(-1, 0), Positions.chunkKeyOf(Positions.pack(-1, 64, 15)));
+        Assert.assertEquals(Positions.chunkKey(MIN_XZ >> 4, MAX_XZ >> 4), Positions.chunkKeyOf(Positions.pack(MIN_XZ, 0, MAX_XZ)));
+        Assert.assertNotEquals(Positions.chunkKey(0, -1), Positions.chunkKey(-1, 0));
+    }
+}